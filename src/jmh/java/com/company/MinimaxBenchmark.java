@@ -0,0 +1,58 @@
+package com.company;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Minimax to the end of the game, with and without the solved game, on the 4x4 positions only: an 8x8 game
+ * cannot be searched to the end. The positions have a parameter of their own, so -p position= for the other
+ * benchmarks never reaches this one.
+ *   java -jar target/benchmarks.jar MinimaxBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class MinimaxBenchmark {
+    @Param({"opening", "middlegame", "endgame"})
+    public String position4x4;
+
+    private State state;
+    private SearchContext context;
+    private SearchContext unsolvedContext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        state = Positions.position("4x4 " + position4x4);
+        context = new SearchContext(new TranspositionTable(SearchBenchmark.TABLE_SIZE));
+        unsolvedContext = new SearchContext(new TranspositionTable(SearchBenchmark.TABLE_SIZE));
+        unsolvedContext.setSolverEnabled(false);
+    }
+
+    @Benchmark
+    public long minimax(SearchBenchmark.Nodes nodes) {
+        long move = Algorithm.minimax(state, SearchBenchmark.cold(context));
+        nodes.nodes += context.getNodes();
+        return move;
+    }
+
+    @Benchmark
+    public long minimaxWithoutSolver(SearchBenchmark.Nodes nodes) {
+        long move = Algorithm.minimax(state, SearchBenchmark.cold(unsolvedContext));
+        nodes.nodes += unsolvedContext.getNodes();
+        return move;
+    }
+}
@@ -0,0 +1,49 @@
+package com.company;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * The move generator and the evaluation on every position, in operations per second:
+ *   java -jar target/benchmarks.jar MoveGenerationBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+    @Benchmark
+    public int generateMoves(Positions positions) {
+        positions.state.generateMoves(positions.moves);
+        return positions.moves.size();
+    }
+
+    @Benchmark
+    public List<List<Action>> applicableActions(Positions positions) {
+        return positions.state.applicableActions();
+    }
+
+    @Benchmark
+    public State result(Positions positions) {
+        return positions.state.result(positions.firstMove);
+    }
+
+    @Benchmark
+    public boolean isTerminal(Positions positions) {
+        return positions.state.isTerminal();
+    }
+
+    @Benchmark
+    public int boardMajority(Positions positions) {
+        return positions.state.boardMajority();
+    }
+}
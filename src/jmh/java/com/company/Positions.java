@@ -0,0 +1,84 @@
+package com.company;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+
+/*
+ * The positions every benchmark runs on: opening, middlegame and endgame for both board sizes. JMH runs each
+ * benchmark once per position, or only on the ones given with -p position="8x8 opening".
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class Positions {
+    //Rows from A downwards: b/w ponds, B/W kings, . empty
+    private static final String[][] positions8 = {
+            {"opening",
+                    ".b.b.b.b", "b.b.b.b.", ".b.b.b.b", "........", "........", "w.w.w.w.", ".w.w.w.w", "w.w.w.w."},
+            {"middlegame",
+                    ".b.b...b", "b.b...b.", "...b.b..", "..b.....", ".w.w.b..", "w...w.w.", "...w.w.w", "w.w....."},
+            {"endgame",
+                    "........", "..B.....", "........", "....W...", ".b......", "......w.", "...W....", "........"}
+    };
+    private static final String[][] positions4 = {
+            {"opening", ".b.b", "....", "....", "w.w."},
+            {"middlegame", ".b..", "..b.", "...w", "..w."},
+            {"endgame", "...B", "w...", "....", "..W."}
+    };
+
+    @Param({"4x4 opening", "4x4 middlegame", "4x4 endgame", "8x8 opening", "8x8 middlegame", "8x8 endgame"})
+    public String position;
+
+    State state;
+    final MoveList moves = new MoveList();
+    long firstMove;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        state = position(position);
+        state.generateMoves(moves);
+        if (moves.size() == 0)
+            throw new IllegalStateException("No moves in " + position);
+        firstMove = moves.get(0);
+    }
+
+    int getDepth() {
+        return state.getSize() == 4 ? 10 : 6;
+    }
+
+    //A position by name, such as "8x8 opening"
+    static State position(String name) {
+        String[][] positions = name.startsWith("4x4 ") ? positions4 : name.startsWith("8x8 ") ? positions8 : new String[0][];
+        for (String[] rows : positions)
+            if (rows[0].equals(name.substring(4)))
+                return position(rows);
+        throw new IllegalArgumentException("Unknown position " + name);
+    }
+
+    private static State position(String[] rows) {
+        Piece[][] board = new Piece[rows.length - 1][rows.length - 1];
+        for (int i = 0; i < board.length; i++) {
+            for (int j = 0; j < board.length; j++) {
+                switch (rows[i + 1].charAt(j)) {
+                    case 'w':
+                        board[i][j] = Piece.WHITEPOND;
+                        break;
+                    case 'W':
+                        board[i][j] = Piece.WHITEKING;
+                        break;
+                    case 'b':
+                        board[i][j] = Piece.BLACKPOND;
+                        break;
+                    case 'B':
+                        board[i][j] = Piece.BLACKKING;
+                        break;
+                    default:
+                        board[i][j] = Piece.NONE;
+                }
+            }
+        }
+        State state = new State(board.length);
+        state.setBoard(board);
+        return state;
+    }
+}
@@ -0,0 +1,136 @@
+package com.company;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Every depth limited search on every position, to depth 10 on 4x4 and 6 on 8x8, in searches per second and,
+ * next to it, nodes per second. Each search but one starts from an empty table, as if the position came up for
+ * the first time; clearing the table is part of what is measured.
+ *   java -jar target/benchmarks.jar SearchBenchmark -p position="8x8 middlegame" -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+    static final int TABLE_SIZE = 1 << 16;  //small, since every search clears it
+
+    //Nodes the searches visited, reported by JMH as a rate next to the searches per second
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    private SearchContext context;
+    private SearchContext keptContext;
+    private SearchContext selectiveContext;
+    private SearchContext unorderedContext;
+    private SearchContext horizonContext;
+    private SearchContext timedContext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SearchContext(new TranspositionTable(TABLE_SIZE));
+        keptContext = new SearchContext(new TranspositionTable(TABLE_SIZE));
+        selectiveContext = new SearchContext(new TranspositionTable(TABLE_SIZE));
+        selectiveContext.setLateMoveReductions(true);
+        selectiveContext.setFutilityPruning(true);
+        unorderedContext = new SearchContext(new TranspositionTable(TABLE_SIZE));
+        unorderedContext.setMoveOrdering(false);
+        horizonContext = new SearchContext(new TranspositionTable(TABLE_SIZE));
+        horizonContext.setQuiescence(false);
+        timedContext = new SearchContext(new TranspositionTable(TABLE_SIZE));
+        timedContext.setMoveTimeMillis(100);
+    }
+
+    //Clears the table first, so the search starts cold
+    static SearchContext cold(SearchContext context) {
+        context.getTranspositionTable().clear();
+        return context;
+    }
+
+    @Benchmark
+    public long minimax_H(Positions positions, Nodes nodes) {
+        long move = Algorithm.minimax_H(positions.state, positions.getDepth() - 2, cold(context));
+        nodes.nodes += context.getNodes();
+        return move;
+    }
+
+    @Benchmark
+    public long alphaBeta(Positions positions, Nodes nodes) {
+        long move = Algorithm.heuristic_minimax_w_alpha_beta_pruning(positions.state, positions.getDepth(), cold(context));
+        nodes.nodes += context.getNodes();
+        return move;
+    }
+
+    //The same search again and again with the table kept, as when the position comes back
+    @Benchmark
+    public long alphaBetaTableKept(Positions positions, Nodes nodes) {
+        long move = Algorithm.heuristic_minimax_w_alpha_beta_pruning(positions.state, positions.getDepth(), keptContext);
+        nodes.nodes += keptContext.getNodes();
+        return move;
+    }
+
+    @Benchmark
+    public long alphaBetaUnordered(Positions positions, Nodes nodes) {
+        long move = Algorithm.heuristic_minimax_w_alpha_beta_pruning(positions.state, positions.getDepth(), cold(unorderedContext));
+        nodes.nodes += unorderedContext.getNodes();
+        return move;
+    }
+
+    @Benchmark
+    public long alphaBetaWithoutQuiescence(Positions positions, Nodes nodes) {
+        long move = Algorithm.heuristic_minimax_w_alpha_beta_pruning(positions.state, positions.getDepth(), cold(horizonContext));
+        nodes.nodes += horizonContext.getNodes();
+        return move;
+    }
+
+    @Benchmark
+    public long parallelAlphaBeta(Positions positions, Nodes nodes) {
+        long move = Algorithm.parallel_heuristic_minimax_w_alpha_beta_pruning(positions.state, positions.getDepth(), cold(context));
+        nodes.nodes += context.getTotalNodes();
+        return move;
+    }
+
+    @Benchmark
+    public long principalVariationSearch(Positions positions, Nodes nodes) {
+        long move = Algorithm.principal_variation_search(positions.state, positions.getDepth(), cold(context));
+        nodes.nodes += context.getNodes();
+        return move;
+    }
+
+    @Benchmark
+    public long principalVariationSearchSelective(Positions positions, Nodes nodes) {
+        long move = Algorithm.principal_variation_search(positions.state, positions.getDepth(), cold(selectiveContext));
+        nodes.nodes += selectiveContext.getNodes();
+        return move;
+    }
+
+    @Benchmark
+    public long iterativeDeepening100ms(Positions positions, Nodes nodes) {
+        long move = Algorithm.iterative_deepening(positions.state, cold(timedContext));
+        nodes.nodes += timedContext.getNodes();
+        return move;
+    }
+}
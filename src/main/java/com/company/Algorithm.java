@@ -0,0 +1,730 @@
+package com.company;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class Algorithm {
+    private static final int MAX_DEPTH = 64;
+    static final int WIN_SCORE = 1000;  //above any material balance, so a won game always outscores being ahead
+    private static final int INFINITE_SCORE = Integer.MAX_VALUE;    //its negation is still an int
+    private static final int ASPIRATION_WINDOW = 6;     //two ponds either side of the last iteration's score
+    private static final int SOLVED_DEPTH = 0xFFFF;     //depth minimax stores: searched to the end of the game
+    private static final int DELTA_MARGIN = Evaluation.KING;    //a promotion and then some for what follows a capture
+    private static final int LMR_FULL_MOVES = 3;    //moves of a node searched to full depth before quiet ones are reduced
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int FUTILITY_DEPTH = 1;    //nodes this close to the horizon may skip quiet moves
+    private static final int FUTILITY_MARGIN = Evaluation.KING;     //per ply left: more than a quiet move can win
+    //Move ordering scores: the table move, then captures, then killers, then history scores below MAX_HISTORY
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28;
+    private static final SearchContext defaultContext = new SearchContext(new TranspositionTable(1 << 19));
+    private static final ForkJoinPool helperPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    public static TranspositionTable getTranspositionTable() {
+        return defaultContext.getTranspositionTable();
+    }
+
+    private static MoveList generateMoves(State state, SearchContext context, int ply) {
+        MoveList moves = context.moveList(ply);
+        state.generateMoves(moves);
+        return moves;
+    }
+
+    /*
+     * Puts the moves most likely to cause a cutoff first: the best move stored for this position, captures by
+     * the number of pieces they take, the two killer moves of this ply and then the quiet moves by history score.
+     * With move ordering switched off only the hash move is put first.
+     */
+    private static void orderMoves(State state, MoveList moves, long hashMove, SearchContext context, int ply) {
+        if (!context.isMoveOrdering()) {
+            moves.moveToFront(hashMove);
+            return;
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            int score;
+            if (a == hashMove)
+                score = HASH_MOVE_SCORE;
+            else if (Move.isCapture(a))
+                score = CAPTURE_SCORE + Move.captureCount(a);
+            else if (context.killerRank(ply, a) > 0)
+                score = KILLER_SCORE + context.killerRank(ply, a);
+            else
+                score = context.historyScore(state.getPlayer(), a);
+            moves.setScore(i, score);
+        }
+        moves.sortByScore();
+    }
+
+    //A quiet move that refutes a position is likely to refute its siblings too
+    private static void cutoff(State state, long move, boolean firstMove, int depth, SearchContext context, int ply) {
+        context.countCutoff(firstMove);
+        if (context.isMoveOrdering() && !Move.isCapture(move))
+            context.addCutoff(state.getPlayer(), move, depth, ply);
+    }
+
+    //All searches score positions from the point of view of the player they are searching for
+    private static int utility(State state, Player player) {
+        return WIN_SCORE * (player == Player.WHITE ? state.utility() : -state.utility());
+    }
+
+    private static int terminalScore(State state, Player player, SearchContext context) {
+        context.countTerminalNode();
+        if (state.pliesBeforeDraw() <= 0)   //drawn by the no-progress rule, which depends on the moves that led here
+            context.countPathDependentScore();
+        return utility(state, player);
+    }
+
+    //A position that came back is scored as the draw going round in circles leads to, which cuts king endings short
+    private static int repetitionScore(SearchContext context) {
+        context.countTerminalNode();
+        context.countPathDependentScore();
+        return 0;
+    }
+
+    /*
+     * Leaf score: the exact result from the endgame tablebases when they hold the position, the sooner the win
+     * the better, and otherwise the material balance. A win that would take longer than the no-progress rule
+     * leaves is a draw.
+     */
+    private static int evaluate(State state, Player player, SearchContext context) {
+        context.countLeafEvaluation();
+        Tablebase tablebase = context.getTablebase();
+        int value = tablebase == null ? Tablebase.NOT_FOUND : tablebase.probe(state);
+        if (value == Tablebase.NOT_FOUND)
+            return boardMajority(state, player);
+        int score = 0;
+        if (value != Tablebase.DRAW && Tablebase.getPlies(value) < state.pliesBeforeDraw())
+            score = Tablebase.isWin(value) ? WIN_SCORE - Tablebase.getPlies(value) : Tablebase.getPlies(value) - WIN_SCORE;
+        else if (value != Tablebase.DRAW)
+            context.countPathDependentScore();
+        return state.getPlayer() == player ? score : -score;
+    }
+
+    /*
+     * Score of a position at the depth cutoff, from the point of view of player: the quiescence search when the
+     * context has it on, the evaluation otherwise
+     */
+    private static int horizonScore(State state, Player player, int alpha, int beta, SearchContext context, int ply) {
+        if (!context.isQuiescence())
+            return evaluate(state, player, context);
+        if (state.getPlayer() == player)
+            return quiescence(state, alpha, beta, context, ply);
+        return -quiescence(state, -beta, -alpha, context, ply);
+    }
+
+    /*
+     * Searches on past the depth cutoff while the player to move has a capture, so a position is never scored
+     * halfway through an exchange. Captures are forced, so the player to move may only stand pat, taking the
+     * evaluation as its score, once it has none. Captures that could not bring the score up to alpha even with
+     * a promotion on top are not searched (delta pruning), unless they end the game or the window is about winning
+     * or losing it, which material cannot measure. Negamax, for the player to move; the node itself has already
+     * been counted and is not terminal.
+     */
+    private static int quiescence(State state, int alpha, int beta, SearchContext context, int ply) {
+        Player player = state.getPlayer();
+        int standPat = evaluate(state, player, context);
+        if (!state.hasCapture())
+            return standPat;
+        int val = -INFINITE_SCORE;
+        MoveList moves = generateMoves(state, context, ply);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            int optimistic = standPat + captureGain(state, a) + DELTA_MARGIN;
+            if (optimistic <= alpha && !isDecisive(alpha) && !isDecisive(beta) && !endsGame(state, a)) {
+                val = Math.max(val, optimistic);
+                continue;
+            }
+            state.apply(a);
+            context.visitNode(ply + 1);
+            int valTemp = state.isTerminal() ? terminalScore(state, player, context) : -quiescence(state, -beta, -alpha, context, ply + 1);
+            state.undo(a);
+            val = Math.max(val, valTemp);
+            alpha = Math.max(alpha, val);
+            if (alpha >= beta)
+                break;
+        }
+        return val;
+    }
+
+    //A score only winning or losing the game reaches, as opposed to a material balance or an open window bound
+    private static boolean isDecisive(int score) {
+        int magnitude = Math.abs(score);
+        return magnitude >= WIN_SCORE / 2 && magnitude <= WIN_SCORE;
+    }
+
+    //Whether the move takes the opponent's last piece or leaves them no move
+    private static boolean endsGame(State state, long move) {
+        state.apply(move);
+        boolean terminal = state.isTerminal();
+        state.undo(move);
+        return terminal;
+    }
+
+    //Material a capture takes off the board
+    private static int captureGain(State state, long move) {
+        long captured = Move.capturedSquares(move, state.getSize());
+        return Evaluation.POND * Long.bitCount(captured) + (Evaluation.KING - Evaluation.POND) * Long.bitCount(captured & state.getKings());
+    }
+
+    //Turns a score for player into one for the player to move and back, as the transposition table keeps them
+    private static int forPlayer(State state, Player player, int score) {
+        return state.getPlayer() == player ? score : -score;
+    }
+
+    private static int boardMajority(State state, Player player) {
+        return state.getPlayer() == player ? state.boardMajority() : -state.boardMajority();
+    }
+
+    public static long minimax(State state) {
+        return minimax(state, defaultContext);
+    }
+
+    public static long minimax(State state, SearchContext context) {
+        if (state.getSize() == 4 && context.isSolverEnabled()) {
+            context.start();    //nothing is searched, but the statistics of the last search should not linger
+            long move = Solver.getDefault().bestMove(state);
+            if (move != Move.NONE)
+                return move;
+        }
+        context.getTranspositionTable().newSearch();
+        context.start();
+        State searchState = new State(state);   //the search applies and undoes moves on its own copy
+        int max = Integer.MIN_VALUE;
+        long result = Move.NONE;
+        MoveList moves = generateMoves(searchState, context, 0);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            searchState.apply(a);
+            int minValue = minValue(searchState, state.getPlayer(), context, 1);
+            searchState.undo(a);
+            if (minValue >= max) {
+                max = minValue;
+                result = a;
+            }
+
+        }
+        context.completeIteration(0);   //depth 0: to the end of the game
+        return result;
+    }
+
+    //Minimax searches to the end of the game, so every value it stores is exact whatever depth it is probed at
+    private static int maxValue(State state, Player player, SearchContext context, int ply) {
+        context.visitNode(ply);
+        if (state.isTerminal())
+            return terminalScore(state, player, context);
+        TranspositionTable transpositionTable = context.getTranspositionTable();
+        long stored = context.probe(state.getHashWithQuietPlies());
+        if (stored != TranspositionTable.NOT_FOUND && TranspositionTable.getDepth(stored) == SOLVED_DEPTH)
+            return forPlayer(state, player, TranspositionTable.getScore(stored));
+        int val = Integer.MIN_VALUE;
+        MoveList moves = generateMoves(state, context, ply);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            state.apply(a);
+            val = Math.max(val, minValue(state, player, context, ply + 1));
+            state.undo(a);
+        }
+        transpositionTable.store(state.getHashWithQuietPlies(), SOLVED_DEPTH, forPlayer(state, player, val), Bound.EXACT, Move.NONE);
+        return val;
+    }
+
+    private static int minValue(State state, Player player, SearchContext context, int ply) {
+        context.visitNode(ply);
+        if (state.isTerminal())
+            return terminalScore(state, player, context);
+        TranspositionTable transpositionTable = context.getTranspositionTable();
+        long stored = context.probe(state.getHashWithQuietPlies());
+        if (stored != TranspositionTable.NOT_FOUND && TranspositionTable.getDepth(stored) == SOLVED_DEPTH)
+            return forPlayer(state, player, TranspositionTable.getScore(stored));
+        int val = Integer.MAX_VALUE;
+        MoveList moves = generateMoves(state, context, ply);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            state.apply(a);
+            val = Math.min(val, maxValue(state, player, context, ply + 1));
+            state.undo(a);
+        }
+        transpositionTable.store(state.getHashWithQuietPlies(), SOLVED_DEPTH, forPlayer(state, player, val), Bound.EXACT, Move.NONE);
+        return val;
+    }
+
+    public static long minimax_H(State state, int depthCutoff) {
+        return minimax_H(state, depthCutoff, defaultContext);
+    }
+
+    public static long minimax_H(State state, int depthCutoff, SearchContext context) {
+        context.getTranspositionTable().newSearch();
+        context.start();
+        State searchState = new State(state);
+        int max = Integer.MIN_VALUE;
+        long result = Move.NONE;
+        MoveList moves = generateMoves(searchState, context, 0);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            searchState.apply(a);
+            int minValue = minValueH(searchState, state.getPlayer(), depthCutoff - 1, context, 1);
+            searchState.undo(a);
+            if (minValue >= max) {
+                max = minValue;
+                result = a;
+            }
+        }
+        context.completeIteration(depthCutoff);
+        return result;
+    }
+
+    private static int maxValueH(State state, Player player, int depth, SearchContext context, int ply) {
+        context.visitNode(ply);
+        if (state.isTerminal())
+            return terminalScore(state, player, context);
+        else if (state.isRepetition())
+            return repetitionScore(context);
+        else if (depth == 0)
+            return horizonScore(state, player, -INFINITE_SCORE, INFINITE_SCORE, context, ply);
+        TranspositionTable transpositionTable = context.getTranspositionTable();
+        long stored = probe(state, depth, context);
+        if (stored != TranspositionTable.NOT_FOUND && TranspositionTable.getDepth(stored) >= depth
+                && TranspositionTable.getBound(stored) == Bound.EXACT)
+            return forPlayer(state, player, TranspositionTable.getScore(stored));
+        long pathDependentScores = context.getPathDependentScores();
+        int val = Integer.MIN_VALUE;
+        MoveList moves = generateMoves(state, context, ply);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            state.apply(a);
+            val = Math.max(val, minValueH(state, player, depth - 1, context, ply + 1));
+            state.undo(a);
+        }
+        if (context.getPathDependentScores() == pathDependentScores)
+            transpositionTable.store(state.getHash(), depth, forPlayer(state, player, val), Bound.EXACT, Move.NONE);
+        return val;
+    }
+
+    private static int minValueH(State state, Player player, int depth, SearchContext context, int ply) {
+        context.visitNode(ply);
+        if (state.isTerminal())
+            return terminalScore(state, player, context);
+        else if (state.isRepetition())
+            return repetitionScore(context);
+        else if (depth == 0)
+            return horizonScore(state, player, -INFINITE_SCORE, INFINITE_SCORE, context, ply);
+        TranspositionTable transpositionTable = context.getTranspositionTable();
+        long stored = probe(state, depth, context);
+        if (stored != TranspositionTable.NOT_FOUND && TranspositionTable.getDepth(stored) >= depth
+                && TranspositionTable.getBound(stored) == Bound.EXACT)
+            return forPlayer(state, player, TranspositionTable.getScore(stored));
+        long pathDependentScores = context.getPathDependentScores();
+        int val = Integer.MAX_VALUE;
+        MoveList moves = generateMoves(state, context, ply);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            state.apply(a);
+            val = Math.min(val, maxValueH(state, player, depth - 1, context, ply + 1));
+            state.undo(a);
+        }
+        if (context.getPathDependentScores() == pathDependentScores)
+            transpositionTable.store(state.getHash(), depth, forPlayer(state, player, val), Bound.EXACT, Move.NONE);
+        return val;
+    }
+
+    public static long heuristic_minimax_w_alpha_beta_pruning(State state, int depthCutoff) {
+        return heuristic_minimax_w_alpha_beta_pruning(state, depthCutoff, defaultContext);
+    }
+
+    public static long heuristic_minimax_w_alpha_beta_pruning(State state, int depthCutoff, SearchContext context) {
+        context.getTranspositionTable().newSearch();
+        context.start();
+        return rootValueAB(new State(state), depthCutoff, Move.NONE, context);
+    }
+
+    /*
+     * Deepens the alpha-beta search one ply at a time until the time or node limit of the context runs out,
+     * and returns the best move of the deepest search that finished. Every iteration starts with the best move
+     * of the one before, and the transposition table is kept between iterations.
+     */
+    public static long iterative_deepening(State state, SearchContext context) {
+        context.getTranspositionTable().newSearch();
+        context.start();
+        MoveList moves = generateMoves(state, context, 0);
+        if (moves.size() <= 1)  //nothing to think about
+            return moves.size() == 0 ? Move.NONE : moves.get(0);
+        return deepen(state, 1, MAX_DEPTH, moves.get(0), context);
+    }
+
+    public static long parallel_heuristic_minimax_w_alpha_beta_pruning(State state, int depthCutoff) {
+        return parallel_heuristic_minimax_w_alpha_beta_pruning(state, depthCutoff, defaultContext);
+    }
+
+    /*
+     * Lazy SMP: helper threads on the fork/join pool run the same iterative deepening search on their own copies
+     * of the position and share only the lock-free transposition table, so every subtree one thread finishes is a
+     * table hit for the others. Helpers start from different root moves, and every other one a ply deeper, so they
+     * do not walk the tree in lockstep. The move is the one the main thread finds at the full depth, exactly as in
+     * the serial search.
+     */
+    public static long parallel_heuristic_minimax_w_alpha_beta_pruning(State state, int depthCutoff, SearchContext context) {
+        context.getTranspositionTable().newSearch();
+        context.start();
+        MoveList moves = generateMoves(state, context, 0);
+        if (moves.size() <= 1)
+            return moves.size() == 0 ? Move.NONE : moves.get(0);
+        SearchContext[] helpers = context.helpers(context.getThreads() - 1);
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[helpers.length];
+        for (int i = 0; i < helpers.length; i++) {
+            SearchContext helper = helpers[i];
+            long firstMove = moves.get((i + 1) % moves.size());
+            int firstDepth = 1 + i % 2;
+            helper.start();
+            tasks[i] = helperPool.submit(() -> deepen(state, firstDepth, depthCutoff, firstMove, helper));
+        }
+        try {
+            return deepen(state, 1, depthCutoff, moves.get(0), context);
+        } finally {
+            for (SearchContext helper : helpers)
+                helper.stop();
+            for (ForkJoinTask<?> task : tasks)
+                task.join();
+            context.publishStatistics();    //with everything the helpers did
+        }
+    }
+
+    private static long deepen(State state, int firstDepth, int maxDepth, long bestMove, SearchContext context) {
+        for (int depth = firstDepth; depth <= maxDepth && !context.iterationLimitReached(); depth++) {
+            try {
+                bestMove = rootValueAB(new State(state), depth, bestMove, context);
+            } catch (SearchAbortedException e) {
+                context.abortIteration();
+                break;  //the unfinished iteration is thrown away
+            }
+        }
+        return bestMove;
+    }
+
+    private static long rootValueAB(State searchState, int depthCutoff, long firstMove, SearchContext context) {
+        Player player = searchState.getPlayer();
+        int alpha = -INFINITE_SCORE;
+        long result = Move.NONE;
+        MoveList moves = generateMoves(searchState, context, 0);
+        //search the previous best move first
+        long hashMove = firstMove != Move.NONE ? firstMove : context.getTranspositionTable().getMove(searchState.getHash());
+        orderMoves(searchState, moves, hashMove, context, 0);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            searchState.apply(a);
+            int minValue = minValueAB(searchState, player, alpha, INFINITE_SCORE, depthCutoff - 1, context, 1);
+            searchState.undo(a);
+            if (result == Move.NONE || minValue > alpha) {
+                alpha = minValue;
+                result = a;
+            }
+        }
+        context.completeIteration(depthCutoff, result, alpha);
+        return result;
+    }
+
+    /*
+     * The table entry for the position, unless the no-progress rule could end the game within depth plies: the
+     * entry may have been stored for a path on which it could not, so its score would miss that draw
+     */
+    private static long probe(State state, int depth, SearchContext context) {
+        if (state.pliesBeforeDraw() <= depth)
+            return TranspositionTable.NOT_FOUND;
+        return context.probe(state.getHash());
+    }
+
+    /*
+     * Returns the stored score if it is deep enough and its bound settles the node for the current window,
+     * otherwise null
+     */
+    private static Integer probeAB(State state, Player player, SearchContext context, int alpha, int beta, int depth) {
+        long stored = probe(state, depth, context);
+        if (stored == TranspositionTable.NOT_FOUND || TranspositionTable.getDepth(stored) < depth)
+            return null;
+        int score = forPlayer(state, player, TranspositionTable.getScore(stored));
+        Bound bound = TranspositionTable.getBound(stored);
+        switch (state.getPlayer() == player ? bound : bound.negated()) {
+            case EXACT:
+                return score;
+            case LOWER:
+                return score >= beta ? score : null;
+            case UPPER:
+                return score <= alpha ? score : null;
+            default:
+                throw new IllegalStateException("Unexpected value: " + bound);
+        }
+    }
+
+    private static void storeAB(State state, Player player, TranspositionTable transpositionTable, int alpha, int beta, int depth, int val, long bestMove) {
+        Bound bound = Bound.EXACT;
+        if (val <= alpha)
+            bound = Bound.UPPER;
+        else if (val >= beta)
+            bound = Bound.LOWER;
+        transpositionTable.store(state.getHash(), depth, forPlayer(state, player, val),
+                state.getPlayer() == player ? bound : bound.negated(), bestMove);
+    }
+
+    private static int maxValueAB(State state, Player player, int alpha, int beta, int depth, SearchContext context, int ply) {
+        context.visitNode(ply);
+        if (state.isTerminal())
+            return terminalScore(state, player, context);
+        else if (state.isRepetition())
+            return repetitionScore(context);
+        else if (depth == 0) {
+            return horizonScore(state, player, alpha, beta, context, ply);
+        }
+        TranspositionTable transpositionTable = context.getTranspositionTable();
+        Integer stored = probeAB(state, player, context, alpha, beta, depth);
+        if (stored != null)
+            return stored;
+
+        int alphaOriginal = alpha;
+        int val = -INFINITE_SCORE;
+        long bestMove = Move.NONE;
+        long pathDependentScores = context.getPathDependentScores();
+        MoveList moves = generateMoves(state, context, ply);
+        orderMoves(state, moves, transpositionTable.getMove(state.getHash()), context, ply);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            state.apply(a);
+            int valTemp = minValueAB(state, player, alpha, beta, depth - 1, context, ply + 1);
+            state.undo(a);
+            if (valTemp > val) {
+                val = valTemp;
+                bestMove = a;
+            }
+            if (val >= beta) {
+                cutoff(state, a, i == 0, depth, context, ply);
+                break;
+            }
+            alpha = Math.max(alpha, val);
+        }
+        if (context.getPathDependentScores() == pathDependentScores)
+            storeAB(state, player, transpositionTable, alphaOriginal, beta, depth, val, bestMove);
+        return val;
+    }
+
+    private static int minValueAB(State state, Player player, int alpha, int beta, int depth, SearchContext context, int ply) {
+        context.visitNode(ply);
+        if (state.isTerminal())
+            return terminalScore(state, player, context);
+        else if (state.isRepetition())
+            return repetitionScore(context);
+        else if (depth == 0) {
+            return horizonScore(state, player, alpha, beta, context, ply);
+        }
+        TranspositionTable transpositionTable = context.getTranspositionTable();
+        Integer stored = probeAB(state, player, context, alpha, beta, depth);
+        if (stored != null)
+            return stored;
+
+        int betaOriginal = beta;
+        int val = INFINITE_SCORE;
+        long bestMove = Move.NONE;
+        long pathDependentScores = context.getPathDependentScores();
+        MoveList moves = generateMoves(state, context, ply);
+        orderMoves(state, moves, transpositionTable.getMove(state.getHash()), context, ply);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            state.apply(a);
+            int valTemp = maxValueAB(state, player, alpha, beta, depth - 1, context, ply + 1);
+            state.undo(a);
+            if (valTemp < val) {
+                val = valTemp;
+                bestMove = a;
+            }
+            if (val <= alpha) {
+                cutoff(state, a, i == 0, depth, context, ply);
+                break;
+            }
+            beta = Math.min(beta, val);
+        }
+        if (context.getPathDependentScores() == pathDependentScores)
+            storeAB(state, player, transpositionTable, alpha, betaOriginal, depth, val, bestMove);
+        return val;
+    }
+
+    public static long principal_variation_search(State state, int depthCutoff) {
+        return principal_variation_search(state, depthCutoff, defaultContext);
+    }
+
+    /*
+     * Negamax principal variation search: every score is from the point of view of the player to move, so one
+     * function serves both sides. Only the first move of a node gets the full window; the others are searched with
+     * a null window that just proves them worse, and are searched again only if that fails. With the context's
+     * switches on, late quiet moves are searched to a reduced depth first, and quiet moves that cannot lift a node
+     * near the horizon up to alpha are skipped (see reduction and futilityScore). Iterations are deepened one ply
+     * at a time with an aspiration window around the score of the one before, and the whole principal variation
+     * of the last one that finished is kept in the context.
+     */
+    public static long principal_variation_search(State state, int depthCutoff, SearchContext context) {
+        context.getTranspositionTable().newSearch();
+        context.start();
+        MoveList moves = generateMoves(state, context, 0);
+        if (moves.size() <= 1) {
+            context.setPrincipalVariation(moves.size() == 0 ? new long[0] : new long[]{moves.get(0)});
+            return moves.size() == 0 ? Move.NONE : moves.get(0);
+        }
+        context.setPrincipalVariation(moves.get(0));
+        deepenPVS(state, depthCutoff, context);
+        long[] principalVariation = context.getPrincipalVariation();
+        if (principalVariation.length > 0)
+            return principalVariation[0];
+        //no iteration left a line, so play the table's move or else the first legal one
+        long tableMove = context.getTranspositionTable().getMove(state.getHash());
+        return moves.contains(tableMove) ? tableMove : moves.get(0);
+    }
+
+    //The score of the position for the player to move, from the principal variation search to depthCutoff
+    static int searchScore(State state, int depthCutoff, SearchContext context) {
+        context.getTranspositionTable().newSearch();
+        context.start();
+        context.setPrincipalVariation();
+        return deepenPVS(state, depthCutoff, context);
+    }
+
+    //Returns the score of the deepest iteration that finished, and keeps its principal variation in the context
+    private static int deepenPVS(State state, int depthCutoff, SearchContext context) {
+        int score = 0;
+        for (int depth = 1; depth <= depthCutoff && !context.iterationLimitReached(); depth++) {
+            try {
+                score = aspirationSearch(new State(state), depth, score, context);
+            } catch (SearchAbortedException e) {
+                context.abortIteration();
+                break;
+            }
+            long[] line = context.principalVariation(0);
+            if (line.length > 0)    //an iteration that left no line keeps the one before
+                context.setPrincipalVariation(line);
+        }
+        return score;
+    }
+
+    //Root scores of minimax_H and of the alpha-beta search for the player to move, which must agree
+    static int minimaxScore(State state, int depthCutoff, SearchContext context) {
+        context.getTranspositionTable().newSearch();
+        context.start();
+        return maxValueH(new State(state), state.getPlayer(), depthCutoff, context, 0);
+    }
+
+    static int alphaBetaScore(State state, int depthCutoff, SearchContext context) {
+        context.getTranspositionTable().newSearch();
+        context.start();
+        return maxValueAB(new State(state), state.getPlayer(), -INFINITE_SCORE, INFINITE_SCORE, depthCutoff, context, 0);
+    }
+
+    //Widens the window on the side that failed, four times as far each time, until the score falls inside it
+    private static int aspirationSearch(State state, int depth, int previousScore, SearchContext context) {
+        int window = ASPIRATION_WINDOW;
+        int alpha = depth == 1 ? -INFINITE_SCORE : previousScore - window;
+        int beta = depth == 1 ? INFINITE_SCORE : previousScore + window;
+        while (true) {
+            int score = principalVariationSearch(state, alpha, beta, depth, context, 0);
+            if (score <= alpha && alpha != -INFINITE_SCORE) {
+                window *= 4;
+                alpha = window > WIN_SCORE ? -INFINITE_SCORE : previousScore - window;
+            } else if (score >= beta && beta != INFINITE_SCORE) {
+                window *= 4;
+                beta = window > WIN_SCORE ? INFINITE_SCORE : previousScore + window;
+            } else {
+                long[] line = context.principalVariation(0);
+                context.completeIteration(depth, line.length == 0 ? Move.NONE : line[0], score);
+                return score;
+            }
+        }
+    }
+
+    /*
+     * How many plies less a move is searched to: one for quiet moves that come late in the ordering when late move
+     * reductions are on. Moves that promote or leave the opponent a capture are tactical and never reduced. Called
+     * with the move applied.
+     */
+    private static int reduction(State state, long move, boolean promotes, int index, int depth, SearchContext context) {
+        if (!context.isLateMoveReductions() || index < LMR_FULL_MOVES || depth < LMR_MIN_DEPTH
+                || Move.isCapture(move) || promotes || state.hasCapture())
+            return 0;
+        return 1;
+    }
+
+    /*
+     * The highest score the quiet moves of a node near the horizon can reach, if even that cannot bring it up to
+     * alpha, otherwise null. Off the principal variation only, and never when the player to move has a capture or
+     * the score is a win or a loss.
+     */
+    private static Integer futilityScore(State state, int alpha, int beta, int depth, SearchContext context) {
+        if (!context.isFutilityPruning() || depth > FUTILITY_DEPTH || beta - alpha != 1 || Math.abs(alpha) >= WIN_SCORE / 2
+                || state.hasCapture())
+            return null;
+        int optimistic = evaluate(state, state.getPlayer(), context) + depth * FUTILITY_MARGIN;
+        return optimistic <= alpha ? optimistic : null;
+    }
+
+    private static int principalVariationSearch(State state, int alpha, int beta, int depth, SearchContext context, int ply) {
+        context.visitNode(ply);
+        context.clearPrincipalVariation(ply);
+        Player player = state.getPlayer();
+        if (state.isTerminal())
+            return terminalScore(state, player, context);
+        else if (ply > 0 && state.isRepetition())
+            return repetitionScore(context);
+        else if (depth == 0)
+            return horizonScore(state, player, alpha, beta, context, ply);
+        TranspositionTable transpositionTable = context.getTranspositionTable();
+        if (beta - alpha == 1) {    //only off the principal variation, so the table cannot cut it short
+            Integer stored = probeAB(state, player, context, alpha, beta, depth);
+            if (stored != null)
+                return stored;
+        }
+
+        int alphaOriginal = alpha;
+        int val = -INFINITE_SCORE;
+        long bestMove = Move.NONE;
+        long pathDependentScores = context.getPathDependentScores();
+        Integer futility = futilityScore(state, alpha, beta, depth, context);
+        MoveList moves = generateMoves(state, context, ply);
+        orderMoves(state, moves, transpositionTable.getMove(state.getHash()), context, ply);
+        for (int i = 0; i < moves.size(); i++) {
+            long a = moves.get(i);
+            long kings = state.getKings();
+            state.apply(a);
+            boolean promotes = (state.getKings() & ~kings) != 0;
+            if (futility != null && i > 0 && !promotes && !state.hasCapture()) {  //cannot reach alpha, not worth searching
+                state.undo(a);
+                context.countPrunedMove();
+                val = Math.max(val, futility);
+                continue;
+            }
+            int valTemp;
+            if (i == 0) {
+                valTemp = -principalVariationSearch(state, -beta, -alpha, depth - 1, context, ply + 1);
+            } else {
+                int reduction = reduction(state, a, promotes, i, depth, context);
+                if (reduction > 0)
+                    context.countReducedMove();
+                valTemp = -principalVariationSearch(state, -alpha - 1, -alpha, depth - 1 - reduction, context, ply + 1);
+                if (reduction > 0 && valTemp > alpha)   //the reduced search may have missed why it is good, verify at full depth
+                    valTemp = -principalVariationSearch(state, -alpha - 1, -alpha, depth - 1, context, ply + 1);
+                if (alpha < valTemp && valTemp < beta)  //better than the first move after all, find out by how much
+                    valTemp = -principalVariationSearch(state, -beta, -alpha, depth - 1, context, ply + 1);
+            }
+            state.undo(a);
+            if (valTemp > val) {
+                val = valTemp;
+                bestMove = a;
+            }
+            if (val > alpha) {
+                alpha = val;
+                context.updatePrincipalVariation(ply, a);
+            }
+            if (alpha >= beta) {
+                cutoff(state, a, i == 0, depth, context, ply);
+                break;
+            }
+        }
+        if (context.getPathDependentScores() == pathDependentScores)
+            storeAB(state, player, transpositionTable, alphaOriginal, beta, depth, val, bestMove);
+        return val;
+    }
+}
@@ -0,0 +1,187 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * One game played through the service: its position and its own search context, so sessions never share
+ * mutable search state. The methods block until the move is made, which is cheap on the session's own thread.
+ */
+class GameSession {
+    private final EngineService service;
+    private final EngineConfig engine;
+    private final SearchContext context;
+    private State state;
+    private final List<Long> latencies = new ArrayList<>();    //nanoseconds from asking for a move to getting it
+
+    GameSession(EngineService service, int boardSize, EngineConfig engine) {
+        this.service = service;
+        this.engine = engine;
+        this.context = engine.newContext(EngineService.SESSION_TABLE_ENTRIES);
+        this.state = new State(boardSize);
+    }
+
+    public synchronized State getState() {
+        return new State(state);
+    }
+
+    public synchronized boolean isOver() {
+        return state.isTerminal();
+    }
+
+    //Plays the user's move, which has to be legal
+    public synchronized void play(long move) {
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        if (!moves.contains(move))
+            throw new IllegalArgumentException("Illegal move " + state.toActions(move));
+        state = state.result(move);
+    }
+
+    //Finds and plays the computer's move: from the book if it has the position, otherwise searched on the engine's pool
+    public synchronized long computerMove() throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        State position = state;
+        long move = service.bookMove(position);
+        if (move == Move.NONE)
+            move = service.search(() -> engine.nextMove(position, context));
+        state = state.result(move);
+        latencies.add(System.nanoTime() - start);
+        return move;
+    }
+
+    synchronized List<Long> getLatencies() {
+        return new ArrayList<>(latencies);
+    }
+}
+
+/*
+ * Plays many games at once in one process. Every session runs on its own virtual thread where the Java version
+ * has them (21 and later); otherwise at most MAX_SESSION_THREADS platform threads run sessions and the others
+ * wait for one. The searches, which need the processor, run on a fixed pool with one thread per core. Sessions
+ * share what is read only: the opening book, the endgame tablebases and the evaluation tables. Each has a small
+ * transposition table of its own unless the engine asks for more with hash=.
+ *
+ * main plays engine against engine games through the service, each after a few random moves, and reports the
+ * throughput and the move latency:
+ *   java EngineService <board size> <concurrent games> <games> [engine]
+ *   java EngineService 8 200 1000 algorithm=A_B_H_MINIMAX,depth=6,hash=1
+ */
+public class EngineService implements AutoCloseable {
+    static final int SESSION_TABLE_ENTRIES = 1 << 14;   //under half a megabyte, so thousands of sessions fit
+    static final int MAX_SESSION_THREADS = 256;
+    private final ExecutorService sessionExecutor = newSessionExecutor();
+    private final ExecutorService searchExecutor;
+    private final OpeningBook openingBook = OpeningBook.getDefault();
+    private final SplittableRandom random = new SplittableRandom();
+
+    public EngineService(int searchThreads) {
+        this.searchExecutor = Executors.newFixedThreadPool(searchThreads);
+    }
+
+    /*
+     * A virtual thread per task when the runtime has them, looked up by reflection so the code still runs on 17.
+     * Platform threads each take a stack, so there are never more than MAX_SESSION_THREADS of them.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(MAX_SESSION_THREADS);
+        }
+    }
+
+    //How many sessions can run at once: no limit on virtual threads
+    public int getSessionLimit() {
+        return sessionExecutor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) sessionExecutor).getMaximumPoolSize() : Integer.MAX_VALUE;
+    }
+
+    public GameSession newSession(int boardSize, EngineConfig engine) {
+        return new GameSession(this, boardSize, engine);
+    }
+
+    //Runs a task for a session, such as a whole game, on a session thread
+    public <T> Future<T> submit(Callable<T> session) {
+        return sessionExecutor.submit(session);
+    }
+
+    long bookMove(State state) {
+        if (openingBook == null)
+            return Move.NONE;
+        synchronized (random) {
+            return openingBook.choose(state, random);
+        }
+    }
+
+    long search(Callable<Long> search) throws InterruptedException, ExecutionException {
+        return searchExecutor.submit(search).get();
+    }
+
+    public void close() {
+        sessionExecutor.shutdown();
+        searchExecutor.shutdown();
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        if (args.length < 3) {
+            System.out.println("Usage: java EngineService <board size> <concurrent games> <games> [engine]");
+            return;
+        }
+        int boardSize = Integer.parseInt(args[0]);
+        int concurrentGames = Integer.parseInt(args[1]);
+        int games = Integer.parseInt(args[2]);
+        EngineConfig engine = EngineConfig.parse(args.length > 3 ? args[3] : "algorithm=A_B_H_MINIMAX,depth=6,hash=1");
+
+        AtomicInteger nextGame = new AtomicInteger();
+        List<Future<List<Long>>> players = new ArrayList<>();
+        long start = System.nanoTime();
+        try (EngineService service = new EngineService(Runtime.getRuntime().availableProcessors())) {
+            //each of the concurrent players plays games one after the other until all are taken
+            for (int i = 0; i < concurrentGames; i++) {
+                players.add(service.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    MoveList moves = new MoveList();
+                    for (int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+                        GameSession session = service.newSession(boardSize, engine);
+                        SplittableRandom opening = new SplittableRandom(game);
+                        for (int ply = 0; ply < (boardSize == 4 ? 2 : 4) && !session.isOver(); ply++) {
+                            session.getState().generateMoves(moves);
+                            session.play(moves.get(opening.nextInt(moves.size())));
+                        }
+                        while (!session.isOver())
+                            session.computerMove();
+                        latencies.addAll(session.getLatencies());
+                    }
+                    return latencies;
+                }));
+            }
+            List<Long> latencies = new ArrayList<>();
+            for (Future<List<Long>> player : players)
+                latencies.addAll(player.get());
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long[] sorted = new long[latencies.size()];
+            for (int i = 0; i < sorted.length; i++)
+                sorted[i] = latencies.get(i);
+            Arrays.sort(sorted);
+            System.out.printf("%d games, %d at a time, in %.1f s: %.1f games/s, %.0f moves/s%n", games,
+                    Math.min(concurrentGames, service.getSessionLimit()), seconds,
+                    games / seconds, sorted.length / seconds);
+            System.out.printf("Move latency: median %.2f ms, p99 %.2f ms, max %.2f ms (%s)%n", percentile(sorted, 0.5) / 1e6,
+                    percentile(sorted, 0.99) / 1e6, percentile(sorted, 1) / 1e6, engine);
+        }
+    }
+}
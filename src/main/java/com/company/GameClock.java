@@ -0,0 +1,155 @@
+package com.company;
+
+import java.util.Locale;
+
+/*
+ * Time control of a timed game: the time each side starts with and the increment it gains after every move,
+ * written as minutes + seconds, for instance 5+3. Fractions are allowed, so 0.5+0.2 is a bullet game and
+ * 1440+0 a day for correspondence analysis.
+ */
+class TimeControl {
+    final long initialMillis;
+    final long incrementMillis;
+
+    TimeControl(long initialMillis, long incrementMillis) {
+        this.initialMillis = initialMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    static TimeControl parse(String text) {
+        String[] parts = text.trim().split("\\+", 2);
+        try {
+            long initialMillis = Math.round(Double.parseDouble(parts[0]) * 60_000);
+            long incrementMillis = parts.length > 1 ? Math.round(Double.parseDouble(parts[1]) * 1000) : 0;
+            if (initialMillis <= 0 || incrementMillis < 0)
+                throw new IllegalArgumentException("Time control needs time to play with: " + text);
+            return new TimeControl(initialMillis, incrementMillis);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected minutes+seconds as time control: " + text, e);
+        }
+    }
+
+    public String toString() {
+        return String.format(Locale.ROOT, "%s+%s", initialMillis / 60_000.0, incrementMillis / 1000.0);
+    }
+}
+
+/*
+ * The clock of a timed game. Only the clock of the side to move runs, from start until stop, which also adds the
+ * increment once the move is made. A side without a time control has all the time in the world, so engines
+ * with and without a clock can play each other.
+ */
+class GameClock {
+    private final TimeControl[] controls = new TimeControl[2];     //by Player ordinal, null for an untimed side
+    private final long[] remainingNanos = new long[2];
+    private Player running;     //null while the clock is stopped
+    private long startNanos;
+
+    GameClock(TimeControl control) {
+        this(control, control);
+    }
+
+    GameClock(TimeControl white, TimeControl black) {
+        controls[Player.WHITE.ordinal()] = white;
+        controls[Player.BLACK.ordinal()] = black;
+        for (Player player : Player.values()) {
+            if (controls[player.ordinal()] != null)
+                remainingNanos[player.ordinal()] = controls[player.ordinal()].initialMillis * 1_000_000;
+        }
+    }
+
+    boolean isTimed(Player player) {
+        return controls[player.ordinal()] != null;
+    }
+
+    //Starts the clock of the player to move, unless it is already running for them
+    void start(Player player) {
+        if (running == player)
+            return;
+        if (running != null)
+            stop();
+        running = player;
+        startNanos = System.nanoTime();
+    }
+
+    //Stops the running clock after its side moved and adds the increment; false if the side had run out of time
+    boolean stop() {
+        if (running == null)
+            return true;
+        Player player = running;
+        running = null;
+        if (!isTimed(player))
+            return true;
+        remainingNanos[player.ordinal()] -= System.nanoTime() - startNanos;
+        if (remainingNanos[player.ordinal()] < 0)
+            return false;
+        remainingNanos[player.ordinal()] += controls[player.ordinal()].incrementMillis * 1_000_000;
+        return true;
+    }
+
+    long remainingMillis(Player player) {
+        if (!isTimed(player))
+            return Long.MAX_VALUE;
+        long remaining = remainingNanos[player.ordinal()];
+        if (running == player)
+            remaining -= System.nanoTime() - startNanos;
+        return remaining / 1_000_000;
+    }
+
+    long incrementMillis(Player player) {
+        return isTimed(player) ? controls[player.ordinal()].incrementMillis : 0;
+    }
+
+    private String format(Player player) {
+        if (!isTimed(player))
+            return "untimed";
+        long millis = Math.max(0, remainingMillis(player));
+        return String.format(Locale.ROOT, "%d:%04.1f", millis / 60_000, millis % 60_000 / 1000.0);
+    }
+
+    public String toString() {
+        return "Clock: black " + format(Player.BLACK) + ", white " + format(Player.WHITE);
+    }
+}
+
+/*
+ * Shares out a side's time between its moves. The budget of a move is its share of the time left, over the
+ * moves the game is still expected to last, which fall as pieces come off the board, plus most of the
+ * increment; it shrinks when there are only one or two moves to choose from and grows when there are many.
+ * That budget is the soft limit, after which the search starts no new iteration unless the last ones changed
+ * their mind (see SearchContext.completeIteration). The hard limit aborts the search, and keeps a reserve for
+ * the time between the end of the search and the clock being stopped, so the engine never loses on time.
+ */
+class TimeManager {
+    private static final long MOVE_OVERHEAD_MILLIS = 30;    //kept back for everything around the search
+    private static final int MIN_MOVES_TO_GO = 12;          //in the endgame
+    private static final int MAX_MOVES_TO_GO = 30;          //from the starting position
+    private static final int HARD_FACTOR = 4;               //the hard limit is this many soft limits at most
+    private static final int MAX_SHARE_OF_TIME = 3;         //and never more than a third of the time left
+
+    private TimeManager() {
+    }
+
+    //Sets the soft and hard time limits of the context for the search of the player to move in state
+    static void allocate(GameClock clock, State state, SearchContext context) {
+        Player player = state.getPlayer();
+        if (!clock.isTimed(player))
+            return;
+        long remaining = clock.remainingMillis(player) - MOVE_OVERHEAD_MILLIS;
+        long increment = clock.incrementMillis(player);
+
+        int size = state.getSize();
+        int startingPieces = size * (size / 2 - 1);
+        double phase = Math.min(1, (double) Long.bitCount(state.getWhitePieces() | state.getBlackPieces()) / startingPieces);
+        long movesToGo = Math.round(MIN_MOVES_TO_GO + (MAX_MOVES_TO_GO - MIN_MOVES_TO_GO) * phase);
+
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        double choice = moves.size() <= 2 ? 0.5 : moves.size() >= 10 ? 1.25 : 1;
+
+        long hard = Math.max(1, remaining / MAX_SHARE_OF_TIME);
+        long soft = Math.round((Math.max(0, remaining) / movesToGo + increment * 3 / 4) * choice);
+        soft = Math.max(1, Math.min(soft, hard));
+        context.setTimeLimits(soft, Math.min(hard, HARD_FACTOR * soft));
+    }
+}
@@ -0,0 +1,358 @@
+package com.company;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/*
+ * A game being recorded. The thread playing it only queues a small event per move; everything else, from
+ * replaying the moves to formatting and writing them, happens on the recorder's thread.
+ */
+class RecordedGame {
+    final GameRecorder recorder;
+    final int boardSize;
+    final String black;
+    final String white;
+    final LocalDate date = LocalDate.now();
+
+    //Only used by the recorder's thread
+    State state;
+    byte[] moveIndices = new byte[64];
+    int moveCount;
+    final StringBuilder pdnMoves = new StringBuilder();
+    int lineLength;
+
+    RecordedGame(GameRecorder recorder, int boardSize, String black, String white) {
+        this.recorder = recorder;
+        this.boardSize = boardSize;
+        this.black = black;
+        this.white = white;
+    }
+
+    //Records a move of the game; statistics are those of the search that found it, or null for a user or book move
+    public void move(long move, SearchStatistics statistics) {
+        recorder.enqueue(new GameRecorder.Event(this, move, statistics, 0));
+    }
+
+    //Records the end of the game, which has reached the given terminal state
+    public void end(State finalState) {
+        end(finalState.utility());
+    }
+
+    //Records the end of a game decided off the board, such as on time: 1 if white won, -1 if black did, 0 for a draw
+    public void end(int result) {
+        recorder.enqueue(new GameRecorder.Event(this, Move.NONE, null, result));
+    }
+}
+
+/*
+ * Archives finished games without slowing down the games: moves, search statistics and results are queued to
+ * a background thread, which writes them in batches through file channels, each game both as PDN text and as
+ * a record in a compact binary archive. Both files are appended to, so one pair can collect the games of many
+ * runs. Games are written when they end; close waits for everything queued to be written.
+ *
+ * An archive is a header (MAGIC, VERSION) followed by one record per game: board size, result (1 if white won,
+ * -1 if black did, 0 for a draw), number of moves as an unsigned short, then one byte per move, the index of
+ * the move among the legal ones in the order State.generateMoves gives them. A game is replayed from the
+ * starting position to turn the indices back into moves, which GameArchiveReader does one game at a time.
+ *
+ *   java GameRecorder <archive>   replays every game of an archive and sums up the results
+ */
+public class GameRecorder implements AutoCloseable {
+    static final int MAGIC = 0x434B4741;   //"CKGA"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int GAME_HEADER_BYTES = 4;     //board size, result, number of moves
+    private static final int MAX_BATCH = 1024;  //events written in one go
+    private static final int LINE_LENGTH = 80;  //PDN move text is wrapped before this
+
+    //A move, or the end of a game if move is Move.NONE, or the end of the recording if game is null
+    static class Event {
+        final RecordedGame game;
+        final long move;
+        final SearchStatistics statistics;
+        final int result;
+
+        Event(RecordedGame game, long move, SearchStatistics statistics, int result) {
+            this.game = game;
+            this.move = move;
+            this.statistics = statistics;
+            this.result = result;
+        }
+    }
+
+    private final BlockingQueue<Event> queue = new LinkedBlockingQueue<>();  //unbounded, so a game never waits
+    private final FileChannel pdn;
+    private final FileChannel archive;
+    private final StringBuilder pdnBatch = new StringBuilder();
+    private final MoveList moves = new MoveList();
+    private final ByteBuffer archiveBatch = ByteBuffer.allocateDirect(1 << 16);
+    private final Thread writer;
+    private volatile Exception failure;     //what stopped the writer, an IOException or a RuntimeException; nothing is written after it
+
+    public GameRecorder(Path pdnFile, Path archiveFile) throws IOException {
+        this.pdn = FileChannel.open(pdnFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.archive = FileChannel.open(archiveFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (archive.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            write(archive, header);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            archive.read(header, 0);
+            if (header.position() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+                throw new IOException("Not a game archive: " + archiveFile);
+            archive.position(archive.size());
+        }
+        this.writer = new Thread(this::write, "game-recorder");
+        this.writer.setDaemon(true);    //close is what makes sure the games get written
+        this.writer.start();
+    }
+
+    //Starts recording a game from the starting position of the board
+    public RecordedGame newGame(int boardSize, String black, String white) {
+        return new RecordedGame(this, boardSize, black, white);
+    }
+
+    void enqueue(Event event) {
+        if (failure == null)
+            queue.add(event);
+    }
+
+    private void write() {
+        List<Event> batch = new ArrayList<>();
+        boolean closing = false;
+        try {
+            while (!closing) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (Event event : batch) {
+                    if (event.game == null)
+                        closing = true;
+                    else if (event.move != Move.NONE)
+                        addMove(event.game, event.move, event.statistics);
+                    else
+                        endGame(event.game, event.result);
+                }
+                batch.clear();
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            failure = e;    //games that end from now on are dropped, and close throws it
+            queue.clear();
+        }
+    }
+
+    //PDN numbers the dark squares from 1, row by row from row A
+    private static int square(int square) {
+        return square / 2 + 1;
+    }
+
+    private static void appendWord(RecordedGame game, String word) {
+        if (game.lineLength > 0 && game.lineLength + 1 + word.length() > LINE_LENGTH) {
+            game.pdnMoves.append('\n');
+            game.lineLength = 0;
+        } else if (game.lineLength > 0) {
+            game.pdnMoves.append(' ');
+            game.lineLength++;
+        }
+        game.pdnMoves.append(word);
+        game.lineLength += word.length();
+    }
+
+    private void addMove(RecordedGame game, long move, SearchStatistics statistics) throws IOException {
+        if (game.state == null)
+            game.state = new State(game.boardSize);
+        game.state.generateMoves(moves);
+        int index = 0;
+        while (index < moves.size() && moves.get(index) != move)
+            index++;
+        if (index == moves.size())
+            throw new IOException("Illegal move " + game.state.toActions(move) + " recorded");
+        if (game.moveCount == game.moveIndices.length)
+            game.moveIndices = Arrays.copyOf(game.moveIndices, 2 * game.moveCount);
+        game.moveIndices[game.moveCount] = (byte) index;
+
+        if (game.moveCount % 2 == 0)    //black moves first
+            appendWord(game, (game.moveCount / 2 + 1) + ".");
+        appendWord(game, square(Move.from(move)) + (Move.isCapture(move) ? "x" : "-") + square(Move.to(move)));
+        if (statistics != null && statistics.getNodes() > 0) {     //a forced move is played without a search
+            List<SearchStatistics.Iteration> iterations = statistics.getIterations();
+            int depth = iterations.isEmpty() ? statistics.getMaxPly() : iterations.get(iterations.size() - 1).depth;
+            appendWord(game, String.format(Locale.ROOT, "{depth %d, %d nodes, %.1f ms}", depth, statistics.getNodes(),
+                    statistics.getNanos() / 1e6));
+        }
+        game.moveCount++;
+        game.state.apply(move);
+    }
+
+    private void endGame(RecordedGame game, int result) throws IOException {
+        String resultText = result > 0 ? "0-1" : result < 0 ? "1-0" : "1/2-1/2";    //black's score first
+        appendWord(game, resultText);
+        pdnBatch.append("[Event \"CheckersMiniMaxAlg\"]\n")
+                .append("[Date \"").append(game.date.format(DateTimeFormatter.ofPattern("yyyy.MM.dd"))).append("\"]\n")
+                .append("[Black \"").append(game.black).append("\"]\n")
+                .append("[White \"").append(game.white).append("\"]\n")
+                .append("[Result \"").append(resultText).append("\"]\n")
+                //21 is English draughts; the other sizes give their board in the long form of the tag
+                .append("[GameType \"").append(game.boardSize == 8 ? "21" : "21,B," + game.boardSize + "," + game.boardSize + ",N1,0").append("\"]\n")
+                .append('\n').append(game.pdnMoves).append("\n\n");
+
+        int bytes = GAME_HEADER_BYTES + game.moveCount;
+        if (archiveBatch.remaining() < bytes)
+            flushArchive();
+        ByteBuffer record = archiveBatch.remaining() >= bytes ? archiveBatch : ByteBuffer.allocate(bytes);
+        record.put((byte) game.boardSize).put((byte) result).putShort((short) game.moveCount).put(game.moveIndices, 0, game.moveCount);
+        if (record != archiveBatch) {
+            record.flip();
+            write(archive, record);
+        }
+    }
+
+    private void flush() throws IOException {
+        if (pdnBatch.length() > 0) {
+            write(pdn, StandardCharsets.UTF_8.encode(pdnBatch.toString()));
+            pdnBatch.setLength(0);
+        }
+        flushArchive();
+    }
+
+    private void flushArchive() throws IOException {
+        archiveBatch.flip();
+        write(archive, archiveBatch);
+        archiveBatch.clear();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    //Waits until every game that ended has been written, then closes the files
+    public void close() throws IOException {
+        queue.add(new Event(null, Move.NONE, null, 0));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pdn.close();
+        archive.close();
+        if (failure instanceof IOException)
+            throw (IOException) failure;
+        if (failure != null)
+            throw (RuntimeException) failure;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java GameRecorder <archive>");
+            return;
+        }
+        long start = System.nanoTime();
+        long games = 0;
+        long plies = 0;
+        long[] results = new long[3];   //black wins, draws, white wins
+        try (GameArchiveReader reader = new GameArchiveReader(Paths.get(args[0]))) {
+            for (ArchivedGame game = reader.next(); game != null; game = reader.next()) {
+                games++;
+                plies += game.moves.length;
+                results[game.result + 1]++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games replayed in %.1f s (%.0f games/s), %.1f plies on average%n", games, seconds, games / seconds,
+                games == 0 ? 0 : (double) plies / games);
+        System.out.printf("White won %d, black won %d, %d draws%n", results[2], results[0], results[1]);
+    }
+}
+
+//A game read back from an archive: its moves replayed from the starting position, and the position they lead to
+class ArchivedGame {
+    final int boardSize;
+    final int result;   //1 if white won, -1 if black did, 0 for a draw
+    final long[] moves;
+    final State finalState;
+
+    ArchivedGame(int boardSize, int result, long[] moves, State finalState) {
+        this.boardSize = boardSize;
+        this.result = result;
+        this.moves = moves;
+        this.finalState = finalState;
+    }
+}
+
+/*
+ * Reads an archive one game at a time through a small buffer, so archives of any size can be replayed without
+ * holding more than the current game in memory
+ */
+class GameArchiveReader implements AutoCloseable {
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private final MoveList moves = new MoveList();
+
+    GameArchiveReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.limit(0);
+        if (!fill(GameRecorder.HEADER_BYTES) || buffer.getInt() != GameRecorder.MAGIC || buffer.getInt() != GameRecorder.VERSION)
+            throw new IOException("Not a game archive: " + file);
+    }
+
+    //Makes sure the buffer holds at least the given number of bytes, false if the file ends first
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes)
+            return true;
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0)
+                break;
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    //The next game of the archive, or null after the last one
+    public ArchivedGame next() throws IOException {
+        if (!fill(GameRecorder.GAME_HEADER_BYTES)) {
+            if (buffer.hasRemaining())
+                throw new IOException("Damaged game archive: " + file);
+            return null;
+        }
+        int boardSize = buffer.get();
+        int result = buffer.get();
+        int moveCount = Short.toUnsignedInt(buffer.getShort());
+        if (!fill(moveCount))
+            throw new IOException("Damaged game archive: " + file);
+        State state = new State(boardSize);
+        long[] gameMoves = new long[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            int index = Byte.toUnsignedInt(buffer.get());
+            state.generateMoves(moves);
+            if (index >= moves.size())
+                throw new IOException("Damaged game archive: " + file);
+            gameMoves[i] = moves.get(index);
+            state.apply(gameMoves[i]);
+        }
+        return new ArchivedGame(boardSize, result, gameMoves, state);
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,224 @@
+package com.company;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Scanner;
+
+public class Main {
+    
+    private static int boardSize(Scanner scanner) {
+        int boardSizeChoice = 0;
+        int boardSize = 0;
+        while (boardSizeChoice != 1 && boardSizeChoice != 2) {
+            System.out.println("Would you like to play on a: ");
+            System.out.println("1: 4x4 board");
+            System.out.println("2: 8x8 board");
+            boardSizeChoice = scanner.nextInt();
+
+            switch (boardSizeChoice) {
+                case 1:
+                    boardSize = 4;
+                    break;
+                case 2:
+                    boardSize = 8;
+                    break;
+            }
+        }
+        return boardSize;
+    }
+
+    public static Player usersColor(Scanner scanner) {
+        int usersColor = 0;
+        Player userPlayer = Player.BLACK;
+        while (usersColor != 1 && usersColor != 2) {
+            System.out.println("Would you like to be: ");
+            System.out.println("1: black");
+            System.out.println("2: white");
+            usersColor = scanner.nextInt();
+
+            switch (usersColor) {
+                case 1:
+                    userPlayer = Player.BLACK;
+                    break;
+                case 2:
+                    userPlayer = Player.WHITE;
+                    break;
+            }
+        }
+        return userPlayer;
+    }
+
+    private static SearchAlgorithm searchAlgorithm(Scanner scanner) {
+        int usersChoiceAlgorithm = 0;
+        SearchAlgorithm searchAlgorithm = SearchAlgorithm.MINIMAX;
+        while (usersChoiceAlgorithm < 1 || usersChoiceAlgorithm > 6) {
+            System.out.println("Which algorithm do you want to use?");
+            System.out.println("1: Minimax");
+            System.out.println("2: Heuristic minimax with alpha-beta pruning");
+            System.out.println("3: Heuristic minimax without alpha-beta pruning");
+            System.out.println("4: Heuristic minimax with alpha-beta pruning and a time limit per move");
+            System.out.println("5: Heuristic minimax with alpha-beta pruning on all processor cores");
+            System.out.println("6: Principal variation search");
+            usersChoiceAlgorithm = scanner.nextInt();
+
+            switch (usersChoiceAlgorithm) {
+                case 1:
+                    searchAlgorithm = SearchAlgorithm.MINIMAX;
+                    break;
+                case 2:
+                    searchAlgorithm = SearchAlgorithm.A_B_H_MINIMAX;
+                    break;
+                case 3:
+                    searchAlgorithm = SearchAlgorithm.MINIMAX_H;
+                    break;
+                case 4:
+                    searchAlgorithm = SearchAlgorithm.TIMED_A_B_H_MINIMAX;
+                    break;
+                case 5:
+                    searchAlgorithm = SearchAlgorithm.PARALLEL_A_B_H_MINIMAX;
+                    break;
+                case 6:
+                    searchAlgorithm = SearchAlgorithm.PRINCIPAL_VARIATION_SEARCH;
+                    break;
+
+            }
+        }
+        return searchAlgorithm;
+    }
+
+    private static int depthCutoff(Scanner scanner) {
+        int depthCutoff = 0;
+        while (depthCutoff <= 0) {
+            System.out.println("Input a depth cutoff: ");
+            depthCutoff = scanner.nextInt();
+        }
+        return depthCutoff;
+    }
+
+    private static long moveTimeMillis(Scanner scanner) {
+        long moveTimeMillis = 0;
+        while (moveTimeMillis <= 0) {
+            System.out.println("Input a time limit per move in milliseconds: ");
+            moveTimeMillis = scanner.nextLong();
+        }
+        return moveTimeMillis;
+    }
+
+    private static int gameMode(Scanner scanner) {
+        int usersChoiceGameMode = 0;
+        int gameMode = 0;
+        while (usersChoiceGameMode != 1 && usersChoiceGameMode != 2 && usersChoiceGameMode != 3) {
+            System.out.println("Which game mode do you want to play?");
+            System.out.println("1: Against computer?");
+            System.out.println("2: 2-player mode");
+            System.out.println("3: Computer vs Computer");
+            usersChoiceGameMode = scanner.nextInt();
+
+            switch (usersChoiceGameMode) {
+                case 1:
+                    gameMode = 1;
+                    break;
+                case 2:
+                    gameMode = 2;
+                    break;
+                case 3:
+                    gameMode = 3;
+                    break;
+
+            }
+        }
+        return gameMode;
+
+    }
+
+    private static void startGame(int gameMode, Runner start, Player usersColor) {
+        switch (gameMode) {
+            case 1:
+                start.run(usersColor);
+                break;
+            case 2:
+                start.runTwoPlayersMode(usersColor);
+                break;
+            case 3:
+                start.runAgainstSelf();
+                break;
+
+        }
+    }
+
+
+    public static void main(String[] args) throws IOException {
+        Scanner scanner = new Scanner(System.in);
+        //java -Dcheckers.clock=5+3 plays on a clock: 5 minutes for each side and 3 seconds more after every move.
+        //The computer shares out its time itself, so it is not asked for a time per move.
+        String clock = System.getProperty("checkers.clock");
+        TimeControl timeControl = clock == null ? null : TimeControl.parse(clock);
+
+        int boardSize = boardSize(scanner);
+
+        Player usersColor = usersColor(scanner);
+
+        SearchAlgorithm searchAlgorithm = searchAlgorithm(scanner);
+        if (timeControl != null && !Runner.keepsToClock(searchAlgorithm)) {
+            System.out.println(searchAlgorithm + " cannot be stopped when its time is up, so this game is played without a clock.");
+            timeControl = null;
+        }
+
+        int depthCutoff = 0;
+        if (searchAlgorithm == SearchAlgorithm.A_B_H_MINIMAX || searchAlgorithm == SearchAlgorithm.MINIMAX_H || searchAlgorithm == SearchAlgorithm.PARALLEL_A_B_H_MINIMAX
+                || searchAlgorithm == SearchAlgorithm.PRINCIPAL_VARIATION_SEARCH) {
+            depthCutoff = depthCutoff(scanner);
+        }
+
+        long moveTimeMillis = 0;
+        if (searchAlgorithm == SearchAlgorithm.TIMED_A_B_H_MINIMAX && timeControl == null) {
+            moveTimeMillis = moveTimeMillis(scanner);
+        }
+
+        Runner start = new Runner(boardSize, searchAlgorithm, depthCutoff, moveTimeMillis);
+        if (timeControl != null)
+            start.setClock(new GameClock(timeControl));
+        //java -Dcheckers.hashMegabytes=256 sizes the transposition table, and -Dcheckers.hashFile=table.bin keeps it
+        //from one run to the next
+        String hashFile = System.getProperty("checkers.hashFile");
+        TranspositionTable table = null;
+        if (hashFile != null && Files.exists(Paths.get(hashFile))) {
+            try {
+                table = TranspositionTable.load(Paths.get(hashFile));
+            } catch (IOException e) {
+                System.out.println("Starting with an empty transposition table: " + e.getMessage());
+            }
+        }
+        if (table == null && Integer.getInteger("checkers.hashMegabytes") != null)
+            table = TranspositionTable.ofMegabytes(Integer.getInteger("checkers.hashMegabytes"));
+        if (table != null)
+            start.setTranspositionTable(table);
+        //java -Dcheckers.statisticsLog=moves.jsonl appends the statistics of every computer move to that file
+        String statisticsLog = System.getProperty("checkers.statisticsLog");
+        if (statisticsLog != null)
+            start.setStatisticsLog(new PrintStream(new FileOutputStream(statisticsLog, true), true));
+        //java -Dcheckers.ponder=true lets the computer think while the user does
+        start.setPondering(Boolean.getBoolean("checkers.ponder"));
+        if (Boolean.getBoolean("checkers.jmx"))
+            start.registerMonitor();
+        //java -Dcheckers.record=games appends the game to games.pdn and to the archive games.bin, and
+        //-Dcheckers.printBoards=false leaves out the board after every move
+        String record = System.getProperty("checkers.record");
+        GameRecorder gameRecorder = record == null ? null : new GameRecorder(Paths.get(record + ".pdn"), Paths.get(record + ".bin"));
+        start.setGameRecorder(gameRecorder);
+        start.setPrintBoards(Boolean.parseBoolean(System.getProperty("checkers.printBoards", "true")));
+
+        int gameMode = gameMode(scanner);
+        startGame(gameMode, start, usersColor);
+        if (gameRecorder != null)
+            gameRecorder.close();
+        if (hashFile != null)
+            start.getTranspositionTable().save(Paths.get(hashFile));
+
+        scanner.close();
+        System.out.println("End of program");
+    }
+}
@@ -0,0 +1,145 @@
+package com.company;
+
+import java.util.Arrays;
+
+/*
+ * A move packed into a long: bits 0-5 hold the square the piece starts on, bits 6-11 the square it ends on
+ * and bits 32-63 the captured pieces, one bit per dark square (square number / 2). Squares are numbered
+ * row * size + column like in Bitboard. The path of a multi capture is not stored, it is rebuilt only
+ * when a move has to be shown to the user (State.toActions).
+ */
+class Move {
+    static final long NONE = 0;  //never a legal move, a quiet move cannot end where it starts and a capture always takes something
+
+    private Move() {
+    }
+
+    static long encode(int from, int to, long capturedSquares) {
+        long captured = 0;
+        while (capturedSquares != 0) {
+            captured |= 1L << (Long.numberOfTrailingZeros(capturedSquares) >>> 1);
+            capturedSquares &= capturedSquares - 1;
+        }
+        return from | (long) to << 6 | captured << 32;
+    }
+
+    static int from(long move) {
+        return (int) move & 63;
+    }
+
+    static int to(long move) {
+        return (int) (move >>> 6) & 63;
+    }
+
+    static boolean isCapture(long move) {
+        return (move >>> 32) != 0;
+    }
+
+    static int captureCount(long move) {
+        return Long.bitCount(move >>> 32);
+    }
+
+    //Dark square i lies on row 2i / size; even rows have their dark squares on odd columns and the other way round
+    static long capturedSquares(long move, int size) {
+        long captured = move >>> 32;
+        long squares = 0;
+        while (captured != 0) {
+            int i = Long.numberOfTrailingZeros(captured);
+            int row = 2 * i / size;
+            squares |= 1L << (2 * i + 1 - (row & 1));
+            captured &= captured - 1;
+        }
+        return squares;
+    }
+}
+
+/*
+ * Reusable buffer of packed moves. The searches keep one per ply, so generating moves allocates nothing.
+ */
+class MoveList {
+    private long[] moves = new long[32];
+    private int[] scores = new int[32];  //ordering scores set by the search just before sortByScore
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, long move) {
+        moves[index] = move;
+    }
+
+    public void add(long move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, 2 * size);
+            scores = Arrays.copyOf(scores, 2 * size);
+        }
+        moves[size++] = move;
+    }
+
+    //Two capture paths that start and end on the same squares and take the same pieces are the same move
+    public void addUnique(long move) {
+        for (int i = 0; i < size; i++)
+            if (moves[i] == move)
+                return;
+        add(move);
+    }
+
+    public void setScore(int index, int score) {
+        scores[index] = score;
+    }
+
+    //Insertion sort, highest score first; move lists are short and equal scores keep their order
+    public void sortByScore() {
+        for (int i = 1; i < size; i++) {
+            long move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    //Swaps the move to the front if it is in the list
+    public void moveToFront(long move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                moves[i] = moves[0];
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    public boolean contains(long move) {
+        for (int i = 0; i < size; i++)
+            if (moves[i] == move)
+                return true;
+        return false;
+    }
+
+    //Captures are mandatory and only the sequences that take the most pieces may be played
+    public void keepMostCaptures() {
+        int maxCaptures = 0;
+        for (int i = 0; i < size; i++)
+            maxCaptures = Math.max(maxCaptures, Move.captureCount(moves[i]));
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+            if (Move.captureCount(moves[i]) == maxCaptures)
+                moves[kept++] = moves[i];
+        size = kept;
+    }
+}
@@ -0,0 +1,241 @@
+package com.company;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Good moves for the first plies of the 8x8 game, worked out once by deep searches so a game does not start with
+ * a full search of positions that come up in every game. Every book position has one or more moves with a
+ * weight; the more a move is worth, the more often it is played, which varies the games.
+ *
+ * The file is a header (MAGIC, VERSION, number of entries) followed by entries of Zobrist key, move and weight,
+ * sorted by key, and is read through a memory-mapped buffer with a binary search. Keys are the pieces and the
+ * player to move, so a position reached by different move orders is one book entry.
+ *
+ *   java OpeningBook [plies] [depth] [file]   builds the book by searching every position to the given depth
+ */
+public class OpeningBook {
+    static final String DEFAULT_FILE = "book.bin";
+    private static final int MAGIC = 0x434B4F42;   //"CKOB"
+    private static final int VERSION = 2;   //2: keys no longer include the level
+    private static final int HEADER_BYTES = 12;
+    private static final int ENTRY_BYTES = 20;     //long key, long move, int weight
+    private static final int MARGIN = 2;           //moves scored within this of the best are kept, less than a pond
+    private static final int MAX_MOVES = 3;        //kept per position, which bounds the size of the book
+
+    //One move of a book position while the book is built
+    private static class BookMove {
+        final long move;
+        final int score;
+        final int weight;
+
+        BookMove(long move, int score, int weight) {
+            this.move = move;
+            this.score = score;
+            this.weight = weight;
+        }
+    }
+
+    private static OpeningBook defaultBook;
+    private static boolean defaultLoaded;
+
+    private final ByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(ByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //The book in DEFAULT_FILE, or null if it does not exist or is outdated
+    static synchronized OpeningBook getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            Path file = Paths.get(DEFAULT_FILE);
+            if (Files.exists(file)) {
+                try {
+                    defaultBook = open(file);
+                } catch (IOException e) {
+                    System.out.println("Playing without the opening book: " + e.getMessage());
+                }
+            }
+        }
+        return defaultBook;
+    }
+
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());  //stays valid after close
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+                throw new IOException("Not an opening book file: " + file);
+            int size = buffer.getInt(8);
+            if (buffer.capacity() != HEADER_BYTES + (long) size * ENTRY_BYTES)
+                throw new IOException("Damaged opening book file: " + file);
+            return new OpeningBook(buffer, size);
+        }
+    }
+
+    private long key(int index) {
+        return buffer.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+    }
+
+    private long move(int index) {
+        return buffer.getLong(HEADER_BYTES + index * ENTRY_BYTES + 8);
+    }
+
+    private int weight(int index) {
+        return buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + 16);
+    }
+
+    //Index of the first entry with the key, or of the first one after it if there is none
+    private int first(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key(middle) < key)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /*
+     * A book move for the position picked at random by weight, or Move.NONE if the position is not in the book.
+     * Moves are checked against the legal ones, so a key that happens to match another position is harmless.
+     */
+    public long choose(State state, SplittableRandom random) {
+        long key = state.getHash();
+        int first = first(key);
+        int end = first;
+        int total = 0;
+        MoveList legal = new MoveList();
+        state.generateMoves(legal);
+        for (; end < size && key(end) == key; end++) {
+            if (legal.contains(move(end)))
+                total += weight(end);
+        }
+        if (total == 0)
+            return Move.NONE;
+        int pick = random.nextInt(total);
+        for (int i = first; i < end; i++) {
+            if (!legal.contains(move(i)))
+                continue;
+            pick -= weight(i);
+            if (pick < 0)
+                return move(i);
+        }
+        throw new IllegalStateException("Weights of book position " + key + " do not add up");
+    }
+
+    //The moves to keep for one position, scored from the player to move's side by searching each child
+    private static List<BookMove> bookMoves(State state, int depth, SearchContext context) {
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        int[] scores = new int[moves.size()];
+        int best = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            State child = state.result(moves.get(i));
+            if (child.isTerminal())
+                scores[i] = (child.getPlayer() == Player.WHITE ? -child.utility() : child.utility()) * Algorithm.WIN_SCORE;
+            else
+                scores[i] = -Algorithm.searchScore(child, depth - 1, context);
+            best = Math.max(best, scores[i]);
+        }
+        List<BookMove> kept = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            if (best - scores[i] <= MARGIN)
+                kept.add(new BookMove(moves.get(i), scores[i], MARGIN + 1 - (best - scores[i])));
+        }
+        kept.sort((a, b) -> Integer.compare(b.score, a.score));     //best first; the sort is stable, so ties keep the generation order
+        return kept.size() > MAX_MOVES ? kept.subList(0, MAX_MOVES) : kept;
+    }
+
+    //Searches the starting position and, ply by ply, every position the book moves lead to
+    static Map<Long, List<BookMove>> build(int plies, int depth) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        ThreadLocal<SearchContext> contexts = ThreadLocal.withInitial(() -> new SearchContext(new TranspositionTable(1 << 18)));
+        Map<Long, List<BookMove>> book = new HashMap<>();
+        List<State> frontier = new ArrayList<>();
+        frontier.add(new State(8));
+        try {
+            for (int ply = 0; ply < plies && !frontier.isEmpty(); ply++) {
+                List<Future<List<BookMove>>> results = new ArrayList<>();
+                for (State state : frontier)
+                    results.add(executor.submit(() -> bookMoves(state, depth, contexts.get())));
+                Map<Long, State> next = new HashMap<>();
+                for (int i = 0; i < frontier.size(); i++) {
+                    State state = frontier.get(i);
+                    List<BookMove> moves = results.get(i).get();
+                    book.put(state.getHash(), moves);
+                    for (BookMove move : moves) {
+                        State child = state.result(move.move);
+                        if (!child.isTerminal())
+                            next.putIfAbsent(child.getHash(), child);    //positions reached by different orders are searched once
+                    }
+                }
+                System.out.printf("Ply %d: %d positions%n", ply, frontier.size());
+                frontier = new ArrayList<>(next.values());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return book;
+    }
+
+    static void save(Map<Long, List<BookMove>> book, Path file) throws IOException {
+        long[] keys = new long[book.size()];
+        int i = 0;
+        int size = 0;
+        for (Map.Entry<Long, List<BookMove>> position : book.entrySet()) {
+            keys[i++] = position.getKey();
+            size += position.getValue().size();
+        }
+        Arrays.sort(keys);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            for (long key : keys) {
+                for (BookMove move : book.get(key)) {
+                    out.writeLong(key);
+                    out.writeLong(move.move);
+                    out.writeInt(move.weight);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int plies = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path file = Paths.get(args.length > 2 ? args[2] : DEFAULT_FILE);
+        long start = System.nanoTime();
+        Map<Long, List<BookMove>> book = build(plies, depth);
+        save(book, file);
+        System.out.printf("%d positions searched to depth %d in %.1f s, saved to %s%n", book.size(), depth,
+                (System.nanoTime() - start) / 1e9, file);
+    }
+}
@@ -0,0 +1,69 @@
+package com.company;
+
+/*
+ * Perft counts the leaves of the legal move tree from the starting position, which catches move generator
+ * regressions (mandatory maximum captures, captures ending on promotion) and measures its raw speed.
+ *
+ *   java Perft <board size> <depth> [divide] [bulk]   counts, optionally per root move
+ *   java Perft verify                                  checks the reference counts below
+ */
+public class Perft {
+    //Leaf counts from the starting position for depth 1, 2, ..., taken from the original generator
+    private static final long[] referenceCounts4 = {
+            3, 9, 12, 16, 22, 26, 40, 59, 105, 194, 355, 591, 987, 1619, 2908, 5037, 9120, 15018, 26888, 48864
+    };
+    private static final long[] referenceCounts8 = {
+            7, 49, 302, 1469, 7361, 36473, 177532, 828783, 3860875
+    };
+
+    private static long divide(State state, int depth, boolean bulk) {
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        long total = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.get(i);
+            state.apply(move);
+            long nodes = state.perft(depth - 1, bulk);
+            state.undo(move);
+            System.out.println(state.toActions(move) + ": " + nodes);
+            total += nodes;
+        }
+        return total;
+    }
+
+    private static boolean verify(int size, long[] referenceCounts, boolean bulk) {
+        boolean passed = true;
+        for (int depth = 1; depth <= referenceCounts.length; depth++) {
+            long nodes = new State(size).perft(depth, bulk);
+            if (nodes != referenceCounts[depth - 1]) {
+                System.out.println("FAILED " + size + "x" + size + " depth " + depth + (bulk ? " bulk" : "") + ": " + nodes + " instead of " + referenceCounts[depth - 1]);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("verify")) {
+            boolean passed = verify(4, referenceCounts4, false) & verify(4, referenceCounts4, true)
+                    & verify(8, referenceCounts8, false) & verify(8, referenceCounts8, true);
+            System.out.println(passed ? "All perft counts match." : "Perft counts differ from the reference.");
+            if (!passed)
+                System.exit(1);
+            return;
+        }
+        int size = Integer.parseInt(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        boolean divide = false;
+        boolean bulk = false;
+        for (int i = 2; i < args.length; i++) {
+            divide |= args[i].equals("divide");
+            bulk |= args[i].equals("bulk");
+        }
+        State state = new State(size);
+        long start = System.nanoTime();
+        long nodes = divide ? divide(state, depth, bulk) : state.perft(depth, bulk);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("perft(%d) = %d in %.3f s, %.0f nodes/s%n", depth, nodes, seconds, nodes / seconds);
+    }
+}
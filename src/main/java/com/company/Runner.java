@@ -0,0 +1,443 @@
+package com.company;
+
+import java.io.PrintStream;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.company.Algorithm.heuristic_minimax_w_alpha_beta_pruning;
+import static com.company.Algorithm.iterative_deepening;
+import static com.company.Algorithm.minimax;
+import static com.company.Algorithm.minimax_H;
+import static com.company.Algorithm.parallel_heuristic_minimax_w_alpha_beta_pruning;
+import static com.company.Algorithm.principal_variation_search;
+
+
+
+enum SearchAlgorithm {
+    MINIMAX,
+    A_B_H_MINIMAX,
+    MINIMAX_H,
+    TIMED_A_B_H_MINIMAX,
+    PARALLEL_A_B_H_MINIMAX,
+    PRINCIPAL_VARIATION_SEARCH
+}
+
+/*
+ * Thinks about the computer's next move while the user thinks about theirs. The user's reply is guessed from the
+ * transposition table the computer's last search left behind, and the position after it is searched on a
+ * background thread, filling the same table. If the user plays the guessed move the result is taken over, often
+ * already finished; any other move cancels the search.
+ */
+class Ponderer {
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ponder");
+        thread.setDaemon(true);     //never keeps the program running after the game
+        return thread;
+    });
+
+    private final SearchContext searchContext;  //the context of the computer's own searches
+    private SearchContext context;      //a copy of it for the search being pondered, so both search alike
+    private long ponderedHash;      //hash of the position being searched
+    private Future<Long> search;    //null when not pondering
+
+    Ponderer(SearchContext searchContext) {
+        this.searchContext = searchContext;
+        this.context = searchContext.copy();
+    }
+
+    SearchContext getContext() {
+        return context;
+    }
+
+    /*
+     * Starts searching the position after the most likely reply to state, unless that search is already running.
+     * On a clock the search gets the limits the move would get, so taking its result never waits longer.
+     */
+    void start(SearchAlgorithm searchAlgorithm, State state, int depthCutoff, GameClock clock) {
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        if (moves.size() == 0)
+            return;
+        long predictedMove = searchContext.getTranspositionTable().getMove(state.getHash());
+        if (!moves.contains(predictedMove))
+            predictedMove = moves.get(0);
+        State predicted = state.result(predictedMove);
+        if (search != null && ponderedHash == predicted.getHash())
+            return;
+        cancel();
+        if (predicted.isTerminal())
+            return;
+        ponderedHash = predicted.getHash();
+        SearchContext ponderContext = searchContext.copy();     //with the settings as they are now
+        if (clock != null)
+            TimeManager.allocate(clock, predicted, ponderContext);
+        context = ponderContext;
+        search = executor.submit(() -> Runner.nextMove(searchAlgorithm, predicted, depthCutoff, ponderContext));
+    }
+
+    //The move found for state if that is the position pondered on, waiting for the search to finish; Move.NONE otherwise
+    long take(State state) {
+        if (search == null)
+            return Move.NONE;
+        if (ponderedHash != state.getHash()) {
+            cancel();
+            return Move.NONE;
+        }
+        try {
+            return search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ponder search", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ponder search failed", e.getCause());
+        } finally {
+            search = null;
+        }
+    }
+
+    /*
+     * Stops the search and waits for it, so nothing writes to the shared table once this returns. The stop is
+     * repeated because a search that had not started yet would clear it again when it does.
+     */
+    void cancel() {
+        if (search == null)
+            return;
+        try {
+            while (true) {
+                context.stop();
+                try {
+                    search.get(1, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    //still running
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof SearchAbortedException))
+                        throw new IllegalStateException("Ponder search failed", e.getCause());
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            search = null;
+        }
+    }
+}
+
+class Runner {
+    private int boardSize;
+    private SearchAlgorithm searchAlgorithm;
+    private int depthCutoff;
+    private State currentState;
+    private final SearchContext searchContext;
+    private PrintStream statisticsLog;  //one JSON line per computer move, null for none
+    private Ponderer ponderer;          //null unless the computer thinks on the user's time
+    private OpeningBook openingBook = OpeningBook.getDefault();     //null without a book
+    private final SplittableRandom random = new SplittableRandom();  //picks among the book moves
+    private GameRecorder gameRecorder;  //null unless games are archived
+    private RecordedGame recordedGame;  //the game being played, while there is a recorder
+    private boolean printBoards = true;
+    private GameClock clock;            //null for an untimed game
+    private Player lostOnTime;          //the player whose time ran out, null while nobody's has
+
+    public Runner(int boardSize, SearchAlgorithm searchAlgorithm, int depthCutoff) {
+        this(boardSize, searchAlgorithm, depthCutoff, 0);
+    }
+
+    public Runner(int boardSize, SearchAlgorithm searchAlgorithm, int depthCutoff, long moveTimeMillis) {
+        this.boardSize = boardSize;
+        this.searchAlgorithm = searchAlgorithm;
+        this.depthCutoff = depthCutoff;
+        this.currentState = new State(boardSize);
+        this.searchContext = new SearchContext(new TranspositionTable(1 << 19));
+        this.searchContext.setMoveTimeMillis(moveTimeMillis);
+    }
+
+    private static Position stringToPosition(String input) {
+        //this method takes a string for example G77 and returns
+        //a position on the board COMPLETED
+        char letter = input.charAt(0);
+        int row = letter - 65;
+        int column = Integer.parseInt(input.substring(1)) - 1;
+        return new Position(row, column);
+    }
+
+    private static Position[] convertUserMoveHelper(String userMove) { //this method takes a string userMove as an input and returns
+        //an array of all the positions where the move is supposed to be played  COMPLETED
+        String[] userMoveStringArray;                           
+        if (userMove.indexOf('-') >= 0)
+            userMoveStringArray = userMove.split("-");
+        else
+            userMoveStringArray = userMove.split("x");
+
+        int size = userMoveStringArray.length;
+        Position[] userMovePositionArray = new Position[size];
+        for (int i = 0; i < size; i++) {
+            userMovePositionArray[i] = stringToPosition(userMoveStringArray[i]);
+        }
+        return userMovePositionArray;
+    }
+
+    //this method takes an array of positions dependent
+    //on users move and returns the list of actions
+    //needed to complete to finish the move
+    public static List<Action> convertUserMove(String userMove) {   //TODO: is it really public
+        List<Action> userMoveList = new LinkedList<>();
+        Position[] positionArray = convertUserMoveHelper(userMove);
+        for (int i = 0; i < positionArray.length - 1; i++) {
+            Action newAction = new Action(positionArray[i], positionArray[i + 1]);
+            userMoveList.add(newAction);
+        }
+        return userMoveList;
+    }
+
+    static long nextMove(SearchAlgorithm searchAlgorithm, State currentState, int depthCutoff, SearchContext searchContext) {
+        switch (searchAlgorithm) {
+            case MINIMAX:
+                return minimax(currentState, searchContext);
+            case A_B_H_MINIMAX:
+                return heuristic_minimax_w_alpha_beta_pruning(currentState, depthCutoff, searchContext);
+            case MINIMAX_H:
+                return minimax_H(currentState, depthCutoff, searchContext);
+            case TIMED_A_B_H_MINIMAX:
+                return iterative_deepening(currentState, searchContext);
+            case PARALLEL_A_B_H_MINIMAX:
+                return parallel_heuristic_minimax_w_alpha_beta_pruning(currentState, depthCutoff, searchContext);
+            case PRINCIPAL_VARIATION_SEARCH:
+                return principal_variation_search(currentState, depthCutoff, searchContext);
+            default:
+                throw new IllegalStateException("Unexpected value: " + searchAlgorithm);
+        }
+    }
+
+    //The searches that deepen iteratively and keep their last finished iteration when stopped
+    static boolean keepsToClock(SearchAlgorithm searchAlgorithm) {
+        return searchAlgorithm == SearchAlgorithm.TIMED_A_B_H_MINIMAX || searchAlgorithm == SearchAlgorithm.PARALLEL_A_B_H_MINIMAX
+                || searchAlgorithm == SearchAlgorithm.PRINCIPAL_VARIATION_SEARCH;
+    }
+
+    public void setStatisticsLog(PrintStream statisticsLog) {
+        this.statisticsLog = statisticsLog;
+    }
+
+    //Searches with the given table from now on, for instance one loaded from a file or of a different size
+    public void setTranspositionTable(TranspositionTable transpositionTable) {
+        if (ponderer != null)
+            ponderer.cancel();
+        searchContext.setTranspositionTable(transpositionTable);
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return searchContext.getTranspositionTable();
+    }
+
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    public void setGameRecorder(GameRecorder gameRecorder) {
+        this.gameRecorder = gameRecorder;
+    }
+
+    //Printing the board every ply takes longer than a shallow search, so games against itself can do without
+    public void setPrintBoards(boolean printBoards) {
+        this.printBoards = printBoards;
+    }
+
+    //Plays the game on the clock, counting the user's time as well as the computer's
+    public void setClock(GameClock clock) {
+        if (clock != null && !keepsToClock(searchAlgorithm))
+            throw new IllegalArgumentException(searchAlgorithm + " cannot be stopped when its time is up, so it cannot play on a clock");
+        this.clock = clock;
+    }
+
+    private void printBoard() {
+        if (printBoards) {
+            currentState.printBoard();
+            if (clock != null)
+                System.out.println(clock);
+        }
+    }
+
+    private boolean isOver() {
+        return lostOnTime != null || currentState.isTerminal();
+    }
+
+    private void startClock() {
+        if (clock != null)
+            clock.start(currentState.getPlayer());
+    }
+
+    private void startRecording(String black, String white) {
+        if (gameRecorder != null)
+            recordedGame = gameRecorder.newGame(boardSize, black, white);
+    }
+
+    /*
+     * Plays a move, recording it with the statistics of the search that found it if there was one. On a clock the
+     * move only counts if it was made in time; otherwise the player to move loses.
+     */
+    private void play(long move, SearchStatistics statistics) {
+        if (clock != null && !clock.stop()) {
+            lostOnTime = currentState.getPlayer();
+            System.out.println(lostOnTime + " lost on time");
+            return;
+        }
+        if (recordedGame != null)
+            recordedGame.move(move, statistics);
+        currentState = currentState.result(move);
+    }
+
+    private void endRecording() {
+        if (recordedGame != null && lostOnTime != null)
+            recordedGame.end(lostOnTime == Player.WHITE ? -1 : 1);
+        else if (recordedGame != null)
+            recordedGame.end(currentState);
+        recordedGame = null;
+    }
+
+    public void setPondering(boolean pondering) {
+        ponderer = pondering ? new Ponderer(searchContext) : null;
+    }
+
+    //Publishes the statistics of the computer's searches over JMX
+    public void registerMonitor() {
+        SearchMonitor.register(searchContext, "Runner");
+    }
+
+    private void playComputerMove() {
+        long bookMove = openingBook == null ? Move.NONE : openingBook.choose(currentState, random);
+        if (bookMove != Move.NONE) {
+            if (ponderer != null)
+                ponderer.cancel();
+            System.out.println("Book move");
+            play(bookMove, null);
+            return;
+        }
+        SearchContext context = searchContext;
+        long move = ponderer == null ? Move.NONE : ponderer.take(currentState);
+        if (move != Move.NONE) {
+            context = ponderer.getContext();
+            System.out.println("Ponder hit");
+        } else {
+            if (clock != null)
+                TimeManager.allocate(clock, currentState, searchContext);
+            move = nextMove(searchAlgorithm, currentState, depthCutoff, searchContext);
+        }
+        SearchStatistics statistics = context.getStatistics();
+        System.out.println("Transposition table: " + statistics.getTranspositionHits() + " hits out of "
+                + statistics.getTranspositionProbes() + " probes in this search");
+        if (searchAlgorithm == SearchAlgorithm.PRINCIPAL_VARIATION_SEARCH)
+            System.out.println("Expected line: " + principalVariation(context));
+        if (statisticsLog != null) {
+            statisticsLog.println("{\"level\":" + currentState.getLevel() + ",\"player\":\"" + currentState.getPlayer()
+                    + "\",\"algorithm\":\"" + searchAlgorithm + "\",\"move\":\"" + currentState.toActions(move)
+                    + "\",\"statistics\":" + statistics.toJson() + "}");
+        }
+        play(move, statistics);
+    }
+
+    //The moves of the principal variation as the user would type them, played out from the current position
+    private String principalVariation(SearchContext context) {
+        StringBuilder line = new StringBuilder();
+        State state = new State(currentState);
+        for (long move : context.getPrincipalVariation()) {
+            if (line.length() > 0)
+                line.append(' ');
+            line.append(state.toActions(move));
+            state.apply(move);
+        }
+        return line.toString();
+    }
+
+    public List<Action> userAction() {
+        System.out.println("The set of applicable actions is: " + this.currentState.applicableActions().toString());
+        System.out.println("Please enter a valid move as a sequence of cells you visit.");
+        System.out.println("Accepted formats example: G4-F3 (for a regular move), G3xD1 (for a capture), G8xE6xC8 (for multiple captures).");
+
+        Scanner scanner = new Scanner(System.in); //we need to close scanner later on
+        String userMove = scanner.next();
+        return convertUserMove(userMove);
+    }
+
+    public void run(Player userPlayer) {
+        String computer = "Computer (" + searchAlgorithm + ")";
+        startRecording(userPlayer == Player.BLACK ? "User" : computer, userPlayer == Player.WHITE ? "User" : computer);
+        while (!isOver()) {
+            printBoard();
+            startClock();
+            if (currentState.getPlayer() == userPlayer) {
+                if (ponderer != null)
+                    ponderer.start(searchAlgorithm, currentState, depthCutoff, clock);
+                List<Action> userMoveList = userAction();
+                long userMove = currentState.toMove(userMoveList);
+                if (userMove != Move.NONE) {   //the user input is valid
+                    play(userMove, null);
+                } else {
+                    System.out.println("OOPS! The input you entered " + userMoveList.toString() + " wasn't in the set of applicable actions.");
+                }
+            } else {
+                playComputerMove();
+            }
+        }
+        if (ponderer != null)
+            ponderer.cancel();
+        endRecording();
+        printBoard();
+        if (lostOnTime != null) {
+            System.out.println(lostOnTime == userPlayer ? "You lost on time." : "The computer lost on time, you win!");
+            return;
+        }
+        if (currentState.utility() == 0) {
+            System.out.println("The game is a draw.");
+            return;
+        }
+        if ((currentState.utility() == 1 && currentState.getPlayer() == Player.WHITE) || (currentState.utility() == -1 && currentState.getPlayer() == Player.BLACK))
+            System.out.println("Congratulations, you win!");
+        else
+            System.out.println("AI win.");  //pun intended
+
+
+    }
+
+    public void runTwoPlayersMode(Player userPlayer) {
+        startRecording("User", "User");
+        while (!isOver()) {
+            printBoard();
+            startClock();
+            List<Action> userMoveList = userAction();
+            long userMove = currentState.toMove(userMoveList);
+            if (userMove != Move.NONE) {   //the user input is valid
+                play(userMove, null);
+            } else {
+                System.out.println("OOPS! The input you entered " + userMoveList.toString() + " wasn't in the set of applicable actions.");
+            }
+        }
+        endRecording();
+        if (lostOnTime != null)
+            System.out.println(lostOnTime == Player.WHITE ? -1 : 1);
+        else
+            System.out.println(currentState.utility());
+    }
+
+    public void runAgainstSelf() {
+        String computer = "Computer (" + searchAlgorithm + ")";
+        startRecording(computer, computer);
+        while (!isOver()) {
+            printBoard();
+            startClock();
+            playComputerMove();
+        }
+        endRecording();
+        printBoard();
+    }
+}
+
@@ -0,0 +1,160 @@
+package com.company;
+
+import java.util.SplittableRandom;
+
+/*
+ * Checks the searches against each other on positions from random games, which catches pruning that changes
+ * the result instead of only saving work. The alpha-beta search with quiescence must score every root exactly
+ * as minimax_H does, since both search the same tree. Also checks that the transposition table lets a new
+ * search replace what an earlier one left, however deep, and that it keeps no draw by repetition for a path
+ * other than the one that made it.
+ *
+ *   java SearchCheck [positions per board size]
+ */
+public class SearchCheck {
+    private static final int TABLE_SIZE = 1 << 16;
+
+    //Positions after a random number of random moves from the start, none of them terminal
+    private static State[] randomPositions(int size, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        MoveList moves = new MoveList();
+        State[] positions = new State[count];
+        for (int i = 0; i < count; ) {
+            State state = new State(size);
+            int plies = random.nextInt(size == 4 ? 8 : 60);
+            for (int ply = 0; ply < plies && !state.isTerminal(); ply++) {
+                state.generateMoves(moves);
+                state = state.result(moves.get(random.nextInt(moves.size())));
+            }
+            if (!state.isTerminal())
+                positions[i++] = state;
+        }
+        return positions;
+    }
+
+    private static boolean checkAlphaBeta(int size, int positions, int maxDepth) {
+        boolean passed = true;
+        SearchContext minimaxContext = new SearchContext(new TranspositionTable(TABLE_SIZE));
+        SearchContext alphaBetaContext = new SearchContext(new TranspositionTable(TABLE_SIZE));
+        State[] states = randomPositions(size, positions, size);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int mismatches = 0;
+            for (State state : states) {
+                minimaxContext.getTranspositionTable().clear();
+                alphaBetaContext.getTranspositionTable().clear();
+                int expected = Algorithm.minimaxScore(state, depth, minimaxContext);
+                int score = Algorithm.alphaBetaScore(state, depth, alphaBetaContext);
+                if (score != expected) {
+                    if (mismatches++ == 0)
+                        state.printBoard();
+                    System.out.println("FAILED " + size + "x" + size + " depth " + depth + ": alpha-beta scored " + score + " instead of " + expected);
+                }
+            }
+            passed &= mismatches == 0;
+        }
+        return passed;
+    }
+
+    //A king move of the player to move that is not a capture, from the given square to the given one, or any for from < 0
+    private static long kingMove(State state, MoveList moves, int from, int to) {
+        state.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.get(i);
+            if (!Move.isCapture(move) && (state.getKings() & (1L << Move.from(move))) != 0
+                    && (from < 0 || (Move.from(move) == from && Move.to(move) == to)))
+                return move;
+        }
+        return Move.NONE;
+    }
+
+    //Both sides move a king and the first moves it back, so the search from there meets repetitions; null if they cannot
+    private static State kingShuffle(State state, MoveList moves) {
+        State shuffled = new State(state);
+        long first = kingMove(shuffled, moves, -1, -1);
+        if (first == Move.NONE)
+            return null;
+        shuffled.apply(first);
+        long second = shuffled.isTerminal() ? Move.NONE : kingMove(shuffled, moves, -1, -1);
+        if (second == Move.NONE)
+            return null;
+        shuffled.apply(second);
+        long back = shuffled.isTerminal() ? Move.NONE : kingMove(shuffled, moves, Move.to(first), Move.from(first));
+        if (back == Move.NONE)
+            return null;
+        shuffled.apply(back);
+        return shuffled.isTerminal() ? null : shuffled;
+    }
+
+    /*
+     * Searches positions reached through a king shuffle, then the same positions set up without that history. With
+     * the table of the first search, the second must score them as a search from an empty table does.
+     */
+    private static boolean checkRepeatedPaths(int size, int positions, int depth) {
+        SplittableRandom random = new SplittableRandom(size);
+        MoveList moves = new MoveList();
+        SearchContext context = new SearchContext(new TranspositionTable(TABLE_SIZE));
+        SearchContext emptyContext = new SearchContext(new TranspositionTable(TABLE_SIZE));
+        int mismatches = 0;
+        for (int found = 0, tries = 0; found < positions && tries < 100 * positions; tries++) {
+            State state = new State(size);
+            int plies = random.nextInt(size == 4 ? 30 : 120);
+            for (int ply = 0; ply < plies && !state.isTerminal(); ply++) {
+                state.generateMoves(moves);
+                state = state.result(moves.get(random.nextInt(moves.size())));
+            }
+            State shuffled = state.isTerminal() ? null : kingShuffle(state, moves);
+            if (shuffled == null)
+                continue;
+            found++;
+            State fresh = new State(size);
+            fresh.setPieces(shuffled.getWhitePieces(), shuffled.getBlackPieces(), shuffled.getKings());
+            fresh.setPlayer(shuffled.getPlayer());
+            context.getTranspositionTable().clear();
+            emptyContext.getTranspositionTable().clear();
+            Algorithm.alphaBetaScore(shuffled, depth, context);
+            int score = Algorithm.alphaBetaScore(fresh, depth, context);
+            int expected = Algorithm.alphaBetaScore(fresh, depth, emptyContext);
+            if (score != expected) {
+                if (mismatches++ == 0)
+                    fresh.printBoard();
+                System.out.println("FAILED " + size + "x" + size + " depth " + depth + ": scored " + score + " after a repeated path instead of " + expected);
+            }
+        }
+        return mismatches == 0;
+    }
+
+    private static boolean checkTableReplacement() {
+        boolean passed = true;
+        TranspositionTable table = new TranspositionTable(TABLE_SIZE);
+        long key = 0x123456789ABCDEFL;
+        table.newSearch();
+        table.store(key, 12, 5, Bound.EXACT, Move.NONE);
+        table.store(key, 3, 7, Bound.EXACT, Move.NONE);
+        long info = table.probe(key);
+        if (TranspositionTable.getDepth(info) != 12 || TranspositionTable.getScore(info) != 5) {
+            System.out.println("FAILED a shallower result replaced a deeper one of the same search");
+            passed = false;
+        }
+        table.newSearch();
+        table.store(key, 3, 7, Bound.EXACT, Move.NONE);
+        info = table.probe(key);
+        if (TranspositionTable.getDepth(info) != 3 || TranspositionTable.getScore(info) != 7) {
+            System.out.println("FAILED a stale deeper result was kept over the new search's");
+            passed = false;
+        }
+        if (table.getProbes() != 2 || table.getHits() != 2) {
+            System.out.println("FAILED the table lost count of its probes at a new search: " + table);
+            passed = false;
+        }
+        return passed;
+    }
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        boolean passed = checkTableReplacement() & checkAlphaBeta(4, positions, 8) & checkAlphaBeta(8, positions, 4)
+                & checkRepeatedPaths(4, positions / 4, 8) & checkRepeatedPaths(8, positions / 4, 5);
+        System.out.println(passed ? "All checks passed." : "Some checks failed.");
+        if (!passed)
+            System.exit(1);
+    }
+}
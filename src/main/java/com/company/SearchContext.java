@@ -0,0 +1,472 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class SearchAbortedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public SearchAbortedException() {
+        super("search stopped", null, false, false);  //thrown on every timeout, so skip the stack trace
+    }
+}
+
+/*
+ * Everything one search needs besides the position: the transposition table, the per ply move buffers
+ * and the limits that stop it. Algorithm keeps a default one; callers that search concurrently give each
+ * search its own.
+ */
+class SearchContext {
+    static final int MAX_HISTORY = 1 << 20;   //history scores stay below this, under the killer scores of the move ordering
+
+    private TranspositionTable transpositionTable;
+    private MoveList[] moveLists = new MoveList[0];
+    private long moveTimeMillis;    //0 means no time limit
+    private long softTimeMillis;    //0 means iterations may start until moveTimeMillis
+    private long nodeLimit;         //0 means no node limit
+    private long deadline;
+    private long softDeadline;
+    private long lastIterationMove;
+    private int lastIterationScore;
+    private long nodes;
+    private volatile boolean stopRequested;
+
+    /*
+     * Statistics of the current search. Each thread counts in its own context; getStatistics adds the helpers in.
+     * Other threads read only the snapshot published at the end of every iteration.
+     */
+    private long leafEvaluations;
+    private long terminalNodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long reducedMoves;
+    private long prunedMoves;
+    private int maxPly;
+    private long startNanos;
+    private long endNanos;
+    private long iterationStartNanos;
+    private long iterationStartNodes;
+    private long transpositionProbes;
+    private long transpositionHits;
+    private long pathDependentScores;   //draws by repetition or the no-progress rule, which the table must not keep
+    private final List<SearchStatistics.Iteration> iterations = new ArrayList<>();
+    private volatile SearchStatistics publishedStatistics;
+
+    //Triangular table of principal variations: row ply holds the best line found from that ply on
+    private long[][] variations = new long[0][];
+    private int[] variationLengths = new int[0];
+    private long[] principalVariation = new long[0];
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean moveOrdering = true;
+    private boolean quiescence = true;  //search captures on past the depth cutoff
+    private boolean lateMoveReductions;     //principal variation search only
+    private boolean futilityPruning;        //principal variation search only
+    private Tablebase tablebase = Tablebase.getDefault();   //null without endgame tables
+    private boolean solverEnabled = true;   //minimax looks up the solved 4x4 game
+    private long[][] killers = new long[0][];  //two quiet moves per ply that caused a cutoff
+    private final int[][] history = new int[2][64 * 64];   //per player, indexed by from * 64 + to
+
+    private SearchContext[] helpers = new SearchContext[0];
+
+    public SearchContext(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+        this.publishedStatistics = getStatistics();
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    //Searches with the given table from now on, keeping every other setting; not while a search runs
+    public void setTranspositionTable(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
+
+    public void setMoveTimeMillis(long moveTimeMillis) {
+        this.moveTimeMillis = moveTimeMillis;
+        this.softTimeMillis = 0;
+    }
+
+    /*
+     * Limits for a move played on a clock: no new iteration starts after soft milliseconds, unless the search is
+     * still changing its mind, and the search is stopped after hard milliseconds
+     */
+    public void setTimeLimits(long softTimeMillis, long hardTimeMillis) {
+        this.moveTimeMillis = hardTimeMillis;
+        this.softTimeMillis = Math.min(softTimeMillis, hardTimeMillis);
+    }
+
+    public long getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    //Nodes of this search and of the helper threads of its last parallel search
+    public long getTotalNodes() {
+        long totalNodes = nodes;
+        for (SearchContext helper : helpers)
+            totalNodes += helper.nodes;
+        return totalNodes;
+    }
+
+    /*
+     * What the last search did, with its helper threads. Only for the thread that searched, once the search has
+     * returned; other threads read getPublishedStatistics.
+     */
+    public SearchStatistics getStatistics() {
+        SearchStatistics[] helperStatistics = new SearchStatistics[helpers.length];
+        for (int i = 0; i < helpers.length; i++)
+            helperStatistics[i] = helpers[i].getStatistics();
+        return addStatistics(helperStatistics);
+    }
+
+    //The statistics as of the last iteration that ended, safe to read from any thread while the search runs
+    public SearchStatistics getPublishedStatistics() {
+        return publishedStatistics;
+    }
+
+    //Called by the searching thread. Helpers may still be running, so only what they published themselves is added in.
+    void publishStatistics() {
+        SearchStatistics[] helperStatistics = new SearchStatistics[helpers.length];
+        for (int i = 0; i < helpers.length; i++)
+            helperStatistics[i] = helpers[i].publishedStatistics;
+        publishedStatistics = addStatistics(helperStatistics);
+    }
+
+    private SearchStatistics addStatistics(SearchStatistics[] helperStatistics) {
+        long totalNodes = this.nodes;
+        long leafEvaluations = this.leafEvaluations;
+        long terminalNodes = this.terminalNodes;
+        long cutoffs = this.cutoffs;
+        long firstMoveCutoffs = this.firstMoveCutoffs;
+        long reducedMoves = this.reducedMoves;
+        long prunedMoves = this.prunedMoves;
+        int maxPly = this.maxPly;
+        long transpositionProbes = this.transpositionProbes;
+        long transpositionHits = this.transpositionHits;
+        for (SearchStatistics helper : helperStatistics) {
+            totalNodes += helper.getNodes();
+            leafEvaluations += helper.getLeafEvaluations();
+            terminalNodes += helper.getTerminalNodes();
+            cutoffs += helper.getCutoffs();
+            firstMoveCutoffs += helper.getFirstMoveCutoffs();
+            reducedMoves += helper.getReducedMoves();
+            prunedMoves += helper.getPrunedMoves();
+            maxPly = Math.max(maxPly, helper.getMaxPly());
+            transpositionProbes += helper.getTranspositionProbes();
+            transpositionHits += helper.getTranspositionHits();
+        }
+        return new SearchStatistics(totalNodes, leafEvaluations, terminalNodes, cutoffs, firstMoveCutoffs, reducedMoves, prunedMoves, maxPly,
+                transpositionProbes, transpositionHits,
+                endNanos - startNanos, iterations);
+    }
+
+    //The best line of play found by the last principal variation search, starting with the move to play
+    public long[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setMoveOrdering(boolean moveOrdering) {
+        this.moveOrdering = moveOrdering;
+    }
+
+    public boolean isMoveOrdering() {
+        return moveOrdering;
+    }
+
+    public void setQuiescence(boolean quiescence) {
+        this.quiescence = quiescence;
+    }
+
+    public boolean isQuiescence() {
+        return quiescence;
+    }
+
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    public void setFutilityPruning(boolean futilityPruning) {
+        this.futilityPruning = futilityPruning;
+    }
+
+    public boolean isFutilityPruning() {
+        return futilityPruning;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    public void setSolverEnabled(boolean solverEnabled) {
+        this.solverEnabled = solverEnabled;
+    }
+
+    public boolean isSolverEnabled() {
+        return solverEnabled;
+    }
+
+    public boolean hasLimit() {
+        return moveTimeMillis > 0 || nodeLimit > 0;
+    }
+
+    //Can be called from another thread, the search notices it at its next time check
+    public void stop() {
+        stopRequested = true;
+        for (SearchContext helper : helpers)
+            helper.stop();
+    }
+
+    //Contexts for the helper threads of a parallel search, sharing this context's table and limits
+    SearchContext[] helpers(int count) {
+        if (helpers.length != count) {
+            helpers = new SearchContext[count];
+            for (int i = 0; i < count; i++)
+                helpers[i] = new SearchContext(transpositionTable);
+        }
+        for (SearchContext helper : helpers)
+            copySettingsTo(helper);
+        return helpers;
+    }
+
+    //A context for another search of the same engine, such as a ponder search, with this one's table and settings
+    SearchContext copy() {
+        SearchContext copy = new SearchContext(transpositionTable);
+        copySettingsTo(copy);
+        return copy;
+    }
+
+    private void copySettingsTo(SearchContext other) {
+        other.transpositionTable = transpositionTable;
+        other.moveTimeMillis = moveTimeMillis;
+        other.softTimeMillis = softTimeMillis;
+        other.nodeLimit = nodeLimit;
+        other.threads = threads;
+        other.moveOrdering = moveOrdering;
+        other.quiescence = quiescence;
+        other.lateMoveReductions = lateMoveReductions;
+        other.futilityPruning = futilityPruning;
+        other.tablebase = tablebase;
+        other.solverEnabled = solverEnabled;
+    }
+
+    void start() {
+        nodes = 0;
+        leafEvaluations = 0;
+        terminalNodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        reducedMoves = 0;
+        prunedMoves = 0;
+        maxPly = 0;
+        iterations.clear();
+        startNanos = endNanos = iterationStartNanos = System.nanoTime();
+        iterationStartNodes = 0;
+        transpositionProbes = 0;
+        transpositionHits = 0;
+        publishedStatistics = addStatistics(new SearchStatistics[0]);  //the helpers publish their own once they start
+        for (long[] plyKillers : killers)
+            plyKillers[0] = plyKillers[1] = Move.NONE;
+        for (int[] playerHistory : history)   //keep what earlier moves learned, but let this search outweigh it
+            for (int i = 0; i < playerHistory.length; i++)
+                playerHistory[i] >>= 1;
+        stopRequested = false;
+        deadline = moveTimeMillis > 0 ? System.nanoTime() + moveTimeMillis * 1_000_000 : Long.MAX_VALUE;
+        softDeadline = softTimeMillis > 0 ? System.nanoTime() + softTimeMillis * 1_000_000 : deadline;
+        lastIterationMove = Move.NONE;
+    }
+
+    boolean limitReached() {
+        return stopRequested || (nodeLimit > 0 && nodes >= nodeLimit) || System.nanoTime() >= deadline;
+    }
+
+    //Whether iterative deepening should stop rather than start another iteration
+    boolean iterationLimitReached() {
+        return limitReached() || System.nanoTime() >= softDeadline;
+    }
+
+    //Counts a node and aborts the search once a limit is reached. The clock is only read every 1024 nodes.
+    void visitNode(int ply) {
+        nodes++;
+        maxPly = Math.max(maxPly, ply);
+        if ((nodes & 1023) == 0 && limitReached())
+            throw new SearchAbortedException();
+    }
+
+    /*
+     * Looks the key up in the table, counting the probe for this search. The table counts too, over its whole
+     * life, but other searches such as pondering share it.
+     */
+    long probe(long key) {
+        transpositionProbes++;
+        long info = transpositionTable.probe(key);
+        if (info != TranspositionTable.NOT_FOUND)
+            transpositionHits++;
+        return info;
+    }
+
+    /*
+     * Counts a score that depends on the moves that led to the position and not on the position alone. A node
+     * whose subtree gave one is not stored in the transposition table, as another path to it could score otherwise.
+     */
+    void countPathDependentScore() {
+        pathDependentScores++;
+    }
+
+    long getPathDependentScores() {
+        return pathDependentScores;
+    }
+
+    void countLeafEvaluation() {
+        leafEvaluations++;
+    }
+
+    void countTerminalNode() {
+        terminalNodes++;
+    }
+
+    void countCutoff(boolean firstMove) {
+        cutoffs++;
+        if (firstMove)
+            firstMoveCutoffs++;
+    }
+
+    void countReducedMove() {
+        reducedMoves++;
+    }
+
+    void countPrunedMove() {
+        prunedMoves++;
+    }
+
+    //Ends an iteration of the search that searched to the given depth
+    void completeIteration(int depth) {
+        long now = System.nanoTime();
+        iterations.add(new SearchStatistics.Iteration(depth, now - iterationStartNanos, nodes - iterationStartNodes));
+        iterationStartNanos = now;
+        iterationStartNodes = nodes;
+        endNanos = now;
+        publishStatistics();
+    }
+
+    /*
+     * Ends an iteration that found bestMove with the given score for the player at the root. A new best move or a
+     * score that fell by more than a pond means the position is not understood yet, so the soft limit is pushed
+     * back by half the soft time, though never past the hard limit.
+     */
+    void completeIteration(int depth, long bestMove, int score) {
+        completeIteration(depth);
+        if (softTimeMillis > 0 && lastIterationMove != Move.NONE
+                && (bestMove != lastIterationMove || score < lastIterationScore - Evaluation.POND))
+            softDeadline = Math.min(deadline, softDeadline + softTimeMillis * 500_000);
+        lastIterationMove = bestMove;
+        lastIterationScore = score;
+    }
+
+    //An iteration that was stopped is not listed, but its time still counts for the search
+    void abortIteration() {
+        endNanos = System.nanoTime();
+        publishStatistics();
+    }
+
+    int killerRank(int ply, long move) {
+        if (ply >= killers.length)
+            return 0;
+        if (killers[ply][0] == move)
+            return 2;
+        return killers[ply][1] == move ? 1 : 0;
+    }
+
+    int historyScore(Player player, long move) {
+        return history[player.ordinal()][Move.from(move) * 64 + Move.to(move)];
+    }
+
+    //Remembers a quiet move that caused a beta cutoff, as a killer for its ply and in the history table
+    void addCutoff(Player player, long move, int depth, int ply) {
+        if (ply >= killers.length) {
+            long[][] grown = new long[Math.max(2 * killers.length, ply + 1)][];
+            System.arraycopy(killers, 0, grown, 0, killers.length);
+            for (int i = killers.length; i < grown.length; i++)
+                grown[i] = new long[2];
+            killers = grown;
+        }
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] playerHistory = history[player.ordinal()];
+        int index = Move.from(move) * 64 + Move.to(move);
+        playerHistory[index] += depth * depth;
+        if (playerHistory[index] >= MAX_HISTORY)
+            for (int i = 0; i < playerHistory.length; i++)
+                playerHistory[i] >>= 1;
+    }
+
+    void clearPrincipalVariation(int ply) {
+        if (ply + 1 >= variations.length) {
+            int length = Math.max(2 * variations.length, ply + 2);
+            long[][] grown = new long[length][];
+            System.arraycopy(variations, 0, grown, 0, variations.length);
+            for (int i = variations.length; i < length; i++)
+                grown[i] = new long[8];
+            variations = grown;
+            variationLengths = Arrays.copyOf(variationLengths, length);
+        }
+        variationLengths[ply] = 0;
+    }
+
+    //The new best move at ply, followed by the line the search of its position just found
+    void updatePrincipalVariation(int ply, long move) {
+        int childLength = variationLengths[ply + 1];
+        if (variations[ply].length < childLength + 1)
+            variations[ply] = Arrays.copyOf(variations[ply], 2 * (childLength + 1));
+        variations[ply][0] = move;
+        System.arraycopy(variations[ply + 1], 0, variations[ply], 1, childLength);
+        variationLengths[ply] = childLength + 1;
+    }
+
+    long[] principalVariation(int ply) {
+        return Arrays.copyOf(variations[ply], variationLengths[ply]);
+    }
+
+    //Keeps a line as the result of the search, before the next iteration overwrites the table
+    void setPrincipalVariation(long... moves) {
+        principalVariation = moves;
+    }
+
+    //One move buffer per ply, reused by every node searched at that ply
+    MoveList moveList(int ply) {
+        if (ply >= moveLists.length) {
+            MoveList[] grown = new MoveList[Math.max(2 * moveLists.length, ply + 1)];
+            System.arraycopy(moveLists, 0, grown, 0, moveLists.length);
+            for (int i = moveLists.length; i < grown.length; i++)
+                grown[i] = new MoveList();
+            moveLists = grown;
+        }
+        return moveLists[ply];
+    }
+}
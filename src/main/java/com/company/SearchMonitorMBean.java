@@ -0,0 +1,26 @@
+package com.company;
+
+//Management interface of SearchMonitor; JMX only accepts a public interface named after the class plus MBean
+public interface SearchMonitorMBean {
+    long getNodes();
+
+    long getLeafEvaluations();
+
+    long getTerminalNodes();
+
+    long getCutoffs();
+
+    double getFirstMoveCutoffRate();
+
+    double getEffectiveBranchingFactor();
+
+    int getMaxPly();
+
+    long getTranspositionHits();
+
+    long getTranspositionProbes();
+
+    double getNodesPerSecond();
+
+    String getLastSearch();
+}
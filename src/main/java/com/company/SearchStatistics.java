@@ -0,0 +1,225 @@
+package com.company;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/*
+ * What one search did: the counters of every thread added together, the transposition table traffic and the
+ * time and nodes of each completed iteration
+ */
+class SearchStatistics {
+    static class Iteration {
+        final int depth;
+        final long nanos;
+        final long nodes;
+
+        Iteration(int depth, long nanos, long nodes) {
+            this.depth = depth;
+            this.nanos = nanos;
+            this.nodes = nodes;
+        }
+    }
+
+    private final long nodes;
+    private final long leafEvaluations;
+    private final long terminalNodes;
+    private final long cutoffs;
+    private final long firstMoveCutoffs;
+    private final long reducedMoves;
+    private final long prunedMoves;
+    private final int maxPly;
+    private final long transpositionProbes;
+    private final long transpositionHits;
+    private final long nanos;
+    private final List<Iteration> iterations;
+
+    SearchStatistics(long nodes, long leafEvaluations, long terminalNodes, long cutoffs, long firstMoveCutoffs, long reducedMoves,
+                     long prunedMoves, int maxPly, long transpositionProbes, long transpositionHits, long nanos, List<Iteration> iterations) {
+        this.nodes = nodes;
+        this.leafEvaluations = leafEvaluations;
+        this.terminalNodes = terminalNodes;
+        this.cutoffs = cutoffs;
+        this.firstMoveCutoffs = firstMoveCutoffs;
+        this.reducedMoves = reducedMoves;
+        this.prunedMoves = prunedMoves;
+        this.maxPly = maxPly;
+        this.transpositionProbes = transpositionProbes;
+        this.transpositionHits = transpositionHits;
+        this.nanos = nanos;
+        this.iterations = Collections.unmodifiableList(new ArrayList<>(iterations));
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getLeafEvaluations() {
+        return leafEvaluations;
+    }
+
+    public long getTerminalNodes() {
+        return terminalNodes;
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    //Share of the cutoffs made by the first move searched, a measure of how good the move ordering is
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    //Moves searched to a reduced depth first by late move reductions
+    public long getReducedMoves() {
+        return reducedMoves;
+    }
+
+    //Moves skipped by futility pruning
+    public long getPrunedMoves() {
+        return prunedMoves;
+    }
+
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    public long getTranspositionProbes() {
+        return transpositionProbes;
+    }
+
+    public long getTranspositionHits() {
+        return transpositionHits;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getNodesPerSecond() {
+        return nanos == 0 ? 0 : nodes / (nanos / 1e9);
+    }
+
+    public List<Iteration> getIterations() {
+        return iterations;
+    }
+
+    /*
+     * How many times more nodes one more ply costs: the ratio of the last two iterations, or for a single search
+     * the root of the node count taken to the depth reached
+     */
+    public double getEffectiveBranchingFactor() {
+        int count = iterations.size();
+        if (count >= 2 && iterations.get(count - 2).nodes > 0)
+            return (double) iterations.get(count - 1).nodes / iterations.get(count - 2).nodes;
+        return maxPly == 0 ? 0 : Math.pow(nodes, 1.0 / maxPly);
+    }
+
+    //One line of JSON, for logs that are read by scripts
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"nodes\":").append(nodes)
+                .append(",\"leafEvaluations\":").append(leafEvaluations)
+                .append(",\"terminalNodes\":").append(terminalNodes)
+                .append(",\"cutoffs\":").append(cutoffs)
+                .append(",\"firstMoveCutoffRate\":").append(String.format(Locale.ROOT, "%.4f", getFirstMoveCutoffRate()))
+                .append(",\"reducedMoves\":").append(reducedMoves)
+                .append(",\"prunedMoves\":").append(prunedMoves)
+                .append(",\"effectiveBranchingFactor\":").append(String.format(Locale.ROOT, "%.3f", getEffectiveBranchingFactor()))
+                .append(",\"maxPly\":").append(maxPly)
+                .append(",\"transpositionProbes\":").append(transpositionProbes)
+                .append(",\"transpositionHits\":").append(transpositionHits)
+                .append(",\"micros\":").append(nanos / 1000)
+                .append(",\"iterations\":[");
+        for (int i = 0; i < iterations.size(); i++) {
+            Iteration iteration = iterations.get(i);
+            if (i > 0)
+                json.append(',');
+            json.append("{\"depth\":").append(iteration.depth)
+                    .append(",\"micros\":").append(iteration.nanos / 1000)
+                    .append(",\"nodes\":").append(iteration.nodes).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    public String toString() {
+        return String.format("Search: %d nodes in %.1f ms (%.0f nodes/s), %d leaves, %d terminal, %d cutoffs (%.1f%% by the first move), "
+                        + "%d reduced, %d pruned, branching factor %.2f, %d plies deep, %d iterations",
+                nodes, nanos / 1e6, getNodesPerSecond(), leafEvaluations, terminalNodes, cutoffs, 100 * getFirstMoveCutoffRate(),
+                reducedMoves, prunedMoves, getEffectiveBranchingFactor(), maxPly, iterations.size());
+    }
+}
+
+/*
+ * JMX view of the last search of a context, for watching a running engine in JConsole or VisualVM. It reads the
+ * snapshot the search publishes after every iteration, never the counters the search is updating.
+ */
+class SearchMonitor implements SearchMonitorMBean {
+    private final SearchContext context;
+
+    private SearchMonitor(SearchContext context) {
+        this.context = context;
+    }
+
+    static void register(SearchContext context, String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new SearchMonitor(context),
+                    new ObjectName("CheckersMiniMaxAlg:type=Search,name=" + ObjectName.quote(name)));
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register the search monitor " + name, e);
+        }
+    }
+
+    public long getNodes() {
+        return context.getPublishedStatistics().getNodes();
+    }
+
+    public long getLeafEvaluations() {
+        return context.getPublishedStatistics().getLeafEvaluations();
+    }
+
+    public long getTerminalNodes() {
+        return context.getPublishedStatistics().getTerminalNodes();
+    }
+
+    public long getCutoffs() {
+        return context.getPublishedStatistics().getCutoffs();
+    }
+
+    public double getFirstMoveCutoffRate() {
+        return context.getPublishedStatistics().getFirstMoveCutoffRate();
+    }
+
+    public double getEffectiveBranchingFactor() {
+        return context.getPublishedStatistics().getEffectiveBranchingFactor();
+    }
+
+    public int getMaxPly() {
+        return context.getPublishedStatistics().getMaxPly();
+    }
+
+    public long getTranspositionHits() {
+        return context.getPublishedStatistics().getTranspositionHits();
+    }
+
+    public long getTranspositionProbes() {
+        return context.getPublishedStatistics().getTranspositionProbes();
+    }
+
+    public double getNodesPerSecond() {
+        return context.getPublishedStatistics().getNodesPerSecond();
+    }
+
+    public String getLastSearch() {
+        return context.getPublishedStatistics().toJson();
+    }
+}
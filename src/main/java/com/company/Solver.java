@@ -0,0 +1,196 @@
+package com.company;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * The 4x4 game solved once: the result under perfect play of every position that can be reached from the
+ * starting position, so MINIMAX only has to look up its children. Positions are keyed on the board, the player
+ * to move and the plies played without progress, which decide how close the draw is. A position with black to
+ * move is turned half a circle with the colours swapped, which gives the same game with white to move, so only
+ * white to move positions are stored and the values are for the player to move.
+ *
+ * The solution is saved to DEFAULT_FILE the first time it is needed and loaded from there by later runs.
+ *
+ *   java Solver [file]   solves the game and saves the solution
+ */
+public class Solver {
+    static final String DEFAULT_FILE = "solved4x4.bin";
+    private static final int MAGIC = 0x434B5334;   //"CKS4"
+    private static final int VERSION = 2;
+    static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    private static Solver defaultSolver;
+
+    private final long[] keys;      //sorted
+    private final byte[] values;    //1 win, 0 draw, -1 loss for the player to move
+
+    private Solver(long[] keys, byte[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    //The solution in DEFAULT_FILE, solving the game and saving it there if the file does not exist yet or is outdated
+    static synchronized Solver getDefault() {
+        if (defaultSolver == null) {
+            Path file = Paths.get(DEFAULT_FILE);
+            boolean saved = Files.exists(file);
+            try {
+                defaultSolver = saved ? load(file) : solve();
+            } catch (IOException e) {
+                System.out.println("Solving the 4x4 game again: " + e.getMessage());
+                defaultSolver = solve();
+                saved = false;
+            }
+            if (!saved) {
+                try {
+                    defaultSolver.save(file);
+                } catch (IOException e) {
+                    System.out.println("Could not save the 4x4 solution: " + e.getMessage());
+                }
+            }
+        }
+        return defaultSolver;
+    }
+
+    //Turning the 4x4 board half a circle takes square s to 15 - s
+    private static long rotate(long squares) {
+        return Long.reverse(squares) >>> 48;
+    }
+
+    private static long key(State state) {
+        long own = state.getWhitePieces();
+        long opponent = state.getBlackPieces();
+        long kings = state.getKings();
+        if (state.getPlayer() == Player.BLACK) {
+            own = rotate(state.getBlackPieces());
+            opponent = rotate(state.getWhitePieces());
+            kings = rotate(kings);
+        }
+        return own | opponent << 16 | kings << 32 | (long) state.getQuietPlies() << 48;
+    }
+
+    public static Solver solve() {
+        Map<Long, Byte> solved = new HashMap<>();
+        solve(new State(4), solved, new MoveList[64], 0);
+        long[] keys = new long[solved.size()];
+        int i = 0;
+        for (long key : solved.keySet())
+            keys[i++] = key;
+        Arrays.sort(keys);
+        byte[] values = new byte[keys.length];
+        for (i = 0; i < keys.length; i++)
+            values[i] = solved.get(keys[i]);
+        return new Solver(keys, values);
+    }
+
+    private static int solve(State state, Map<Long, Byte> solved, MoveList[] moveLists, int ply) {
+        long key = key(state);
+        Byte known = solved.get(key);
+        if (known != null)
+            return known;
+        int value;
+        if (state.isTerminal()) {
+            value = state.getPlayer() == Player.WHITE ? state.utility() : -state.utility();
+        } else {
+            if (ply == moveLists.length)
+                moveLists = Arrays.copyOf(moveLists, 2 * ply);   //games are only bounded by the no-progress rule
+            if (moveLists[ply] == null)
+                moveLists[ply] = new MoveList();
+            MoveList moves = moveLists[ply];
+            state.generateMoves(moves);
+            value = -1;
+            for (int i = 0; i < moves.size(); i++) {
+                long move = moves.get(i);
+                state.apply(move);
+                value = Math.max(value, -solve(state, solved, moveLists, ply + 1));
+                state.undo(move);
+            }
+        }
+        solved.put(key, (byte) value);
+        return value;
+    }
+
+    public static Solver load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException("Not a 4x4 solution file: " + file);
+            int size = in.readInt();
+            long[] keys = new long[size];
+            byte[] values = new byte[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = in.readLong();
+                values[i] = in.readByte();
+            }
+            return new Solver(keys, values);
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                out.writeLong(keys[i]);
+                out.writeByte(values[i]);
+            }
+        }
+    }
+
+    /*
+     * 1 if the player to move wins with perfect play, 0 for a draw and -1 for a loss, or NOT_FOUND for a position
+     * that cannot be reached from the 4x4 starting position
+     */
+    public int value(State state) {
+        if (state.getSize() != 4)
+            return NOT_FOUND;
+        int index = Arrays.binarySearch(keys, key(state));
+        return index < 0 ? NOT_FOUND : values[index];
+    }
+
+    //Like minimax, the last of the moves with the best value. Move.NONE if the position is not in the solution.
+    public long bestMove(State state) {
+        State searchState = new State(state);
+        MoveList moves = new MoveList();
+        searchState.generateMoves(moves);
+        int max = Integer.MIN_VALUE;
+        long result = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.get(i);
+            searchState.apply(move);
+            int value = value(searchState);
+            searchState.undo(move);
+            if (value == NOT_FOUND)
+                return Move.NONE;
+            value = -value;
+            if (value >= max) {
+                max = value;
+                result = move;
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+        long start = System.nanoTime();
+        Solver solver = solve();
+        solver.save(file);
+        System.out.printf("Solved %d positions in %.3f s, the first player %s, saved to %s%n", solver.size(),
+                (System.nanoTime() - start) / 1e9, new String[]{"loses", "draws", "wins"}[solver.value(new State(4)) + 1], file);
+    }
+}
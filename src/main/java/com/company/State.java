@@ -0,0 +1,887 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+enum Piece {
+    WHITEPOND,
+    WHITEKING,
+    BLACKPOND,
+    BLACKKING,
+    NONE
+}
+
+enum Player {
+    WHITE, BLACK;
+
+    public Player otherPlayer() {
+        if (this == WHITE) {
+            return BLACK;
+        } else {
+            return WHITE;
+        }
+    }
+}
+
+class Position {
+    private int row;
+    private int column;
+
+    public Position() {
+        this.row = 0;
+        this.column = 0;
+    }
+
+    public Position(int row, int column) {
+        this.row = row;
+        this.column = column;
+    }
+
+    public int getRow() {
+        return this.row;
+    }
+
+    public void setRow(int num) {
+        this.row = num;
+    }
+
+    public int getColumn() {
+        return this.column;
+    }
+
+    public void setColumn(int num) {
+        this.column = num;
+    }
+
+    public char rowToChar() {
+        return (char) (this.row + 65);
+    }
+
+    public String toString() {
+        return (String.valueOf(rowToChar())) + (this.column + 1);
+    }
+
+    public boolean equals(Position position) {
+        return this.row == position.row && this.column == position.column;
+    }
+}
+
+class Action {
+    private Position from;
+    private Position to;
+
+    public Action(Position from, Position to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public boolean moveDiagonallyTwo() {
+        return Math.abs(to.getRow() - from.getRow()) == 2 && Math.abs(to.getColumn() - from.getColumn()) == 2;
+    }
+
+    public Position getFrom() {
+        return this.from;
+    }
+
+    public void setFrom(Position origin) {
+        this.from = origin;
+    }
+
+    public Position getTo() {
+        return this.to;
+    }
+
+    public void setTo(Position destination) {
+        this.to = destination;
+    }
+
+    public boolean isCapture() {
+        return Math.abs(from.getRow() - to.getRow()) == 2;  //an Action is a capture if it goes two rows/columns above or below
+    }
+
+    public String toString() {
+        return this.from.toString() + " -> " + this.to.toString();
+    }
+
+    public boolean equals(Action action) {
+        return this.from.equals(action.from) && this.to.equals(action.to);
+    }
+}
+
+class Bitboard {
+    //Squares are numbered row * size + column, so a board of up to 8x8 fits in one long.
+    //Directions are ordered like the original change arrays: down-left, down-right, up-left, up-right.
+    static final int DOWN_LEFT = 0;
+    static final int DOWN_RIGHT = 1;
+    static final int UP_LEFT = 2;
+    static final int UP_RIGHT = 3;
+
+    private static final Bitboard[] cache = new Bitboard[9];
+
+    final int size;
+    final long all;
+    final long firstRow;
+    final long lastRow;
+    final int[] offset = new int[4];
+    final long[] canStep = new long[4];  //squares from which a one square step in the direction stays on the board
+    final long[] canJump = new long[4];  //squares from which a two square jump in the direction stays on the board
+
+    private Bitboard(int size) {
+        this.size = size;
+        this.all = size == 8 ? -1L : (1L << (size * size)) - 1;
+        this.firstRow = (1L << size) - 1;
+        this.lastRow = this.firstRow << (size * (size - 1));
+        int[] changeInRows = {1, 1, -1, -1};
+        int[] changeInColumns = {-1, 1, -1, 1};
+        for (int k = 0; k < 4; k++) {
+            offset[k] = changeInRows[k] * size + changeInColumns[k];
+            for (int row = 0; row < size; row++) {
+                for (int column = 0; column < size; column++) {
+                    if (inRange(row + changeInRows[k], column + changeInColumns[k]))
+                        canStep[k] |= square(row, column);
+                    if (inRange(row + 2 * changeInRows[k], column + 2 * changeInColumns[k]))
+                        canJump[k] |= square(row, column);
+                }
+            }
+        }
+    }
+
+    static Bitboard of(int size) {
+        if (size < 2 || size > 8 || size % 2 != 0)   //Move packs captures by dark square, which needs an even size
+            throw new IllegalArgumentException("Unsupported board size: " + size);
+        if (cache[size] == null)
+            cache[size] = new Bitboard(size);
+        return cache[size];
+    }
+
+    private boolean inRange(int row, int column) {
+        return 0 <= row && row < size && 0 <= column && column < size;
+    }
+
+    long square(int row, int column) {
+        return 1L << (row * size + column);
+    }
+
+    int row(int square) {
+        return square / size;
+    }
+
+    int column(int square) {
+        return square % size;
+    }
+
+    static long shift(long bits, int offset) {
+        return offset > 0 ? bits << offset : bits >>> -offset;
+    }
+}
+
+class Zobrist {
+    //Fixed seed, so keys (and everything stored under them) are the same in every run.
+    private static final long[][] pieceKeys = new long[4][64];
+    private static final long whiteToMoveKey;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_C0FFEEL);
+        for (long[] keys : pieceKeys)
+            for (int i = 0; i < keys.length; i++)
+                keys[i] = random.nextLong();
+        whiteToMoveKey = random.nextLong();
+    }
+
+    static long piece(Piece piece, int square) {
+        return piece == Piece.NONE ? 0 : pieceKeys[piece.ordinal()][square];
+    }
+
+    static long player(Player player) {
+        return player == Player.WHITE ? whiteToMoveKey : 0;
+    }
+
+    static long quietPlies(int quietPlies) {
+        long z = (quietPlies + 1) * 0x9E3779B97F4A7C15L;   //splitmix64 finaliser, so any count gets its own key
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
+
+/*
+ * Piece-square values from white's point of view, one set of tables per board size. State keeps the sum over
+ * its pieces up to date in setPiece, like the Zobrist key, so evaluating a leaf costs nothing. By default the
+ * values are only the material, 3 for a pond and 5 for a king wherever they stand; positional terms are added
+ * by giving white's squares different values below, black's tables being the half turn of white's.
+ */
+class Evaluation {
+    static final int POND = 3;
+    static final int KING = 5;
+
+    private static final Evaluation[] cache = new Evaluation[9];
+
+    private final int[][] values = new int[4][64];
+
+    private Evaluation(int size) {
+        int squares = size * size;
+        for (int square = 0; square < squares; square++) {
+            values[Piece.WHITEPOND.ordinal()][square] = POND;
+            values[Piece.WHITEKING.ordinal()][square] = KING;
+        }
+        for (int square = 0; square < squares; square++) {
+            values[Piece.BLACKPOND.ordinal()][square] = -values[Piece.WHITEPOND.ordinal()][squares - 1 - square];
+            values[Piece.BLACKKING.ordinal()][square] = -values[Piece.WHITEKING.ordinal()][squares - 1 - square];
+        }
+    }
+
+    static Evaluation of(int size) {
+        if (cache[size] == null)
+            cache[size] = new Evaluation(size);
+        return cache[size];
+    }
+
+    int value(Piece piece, int square) {
+        return piece == Piece.NONE ? 0 : values[piece.ordinal()][square];
+    }
+}
+
+class State {
+    private Player player;
+    private int level;
+    private Bitboard bitboard;
+    private long whitePieces;
+    private long blackPieces;
+    private long kings;
+    private long hash;  //Zobrist key of pieces and player to move, kept up to date by every change
+    private int quietPlies;     //plies since the last capture or pond move; the game is drawn when it reaches the limit
+    private long[] history;     //hash of the position at each level of the game so far, for spotting repetitions
+    private Evaluation evaluation;
+    private int score;  //sum of the evaluation values of all pieces, white's point of view, kept up to date like the hash
+
+    //Undo stack for apply/undo, only allocated once a state is searched in place
+    private int undoTop;
+    private long[] undoCaptured;
+    private long[] undoCapturedKings;
+    private Piece[] undoMoved;   //the piece that moved, as it was before any promotion
+    private int[] undoQuietPlies;
+    private MoveList moves;      //scratch buffer for the legal move checks of this state
+
+    public State() {
+        System.out.println("FOR TESTING ONLY");
+    }
+
+    public State(int sizeOfBoard) {
+        this.player = Player.BLACK;
+        this.level = 0;
+        this.setBoard(createInitialBoard(sizeOfBoard));
+    }
+
+    public State(State state) {
+        this.player = state.player;
+        this.level = state.level;
+        this.quietPlies = state.quietPlies;
+        this.history = state.history == null ? null : state.history.clone();
+        this.bitboard = state.bitboard;
+        this.whitePieces = state.whitePieces;
+        this.blackPieces = state.blackPieces;
+        this.kings = state.kings;
+        this.hash = state.hash;
+        this.evaluation = state.evaluation;
+        this.score = state.score;
+    }
+
+    private static Piece[][] createInitialBoard(int n) {
+        Piece[][] initialBoard = new Piece[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                initialBoard[i][j] = Piece.NONE;
+        switch (n) {
+            case 4:
+                initialBoard[0][1] = Piece.BLACKPOND;
+                initialBoard[0][3] = Piece.BLACKPOND;
+                initialBoard[3][0] = Piece.WHITEPOND;
+                initialBoard[3][2] = Piece.WHITEPOND;
+                break;
+            case 8:
+                for (int i = 0; i < 3; i++)
+                    for (int j = 0; j < 8; j++)
+                        if ((i + j) % 2 == 1)
+                            initialBoard[i][j] = Piece.BLACKPOND;
+                for (int i = 5; i < 8; i++)
+                    for (int j = 0; j < 8; j++)
+                        if ((i + j) % 2 == 1)
+                            initialBoard[i][j] = Piece.WHITEPOND;
+        }
+        return initialBoard;
+    }
+
+    @SuppressWarnings("BooleanMethodIsAlwaysInverted")
+    public boolean coordinatesInRange(int row, int column) {
+        return 0 <= row && row < this.bitboard.size && 0 <= column && column < this.bitboard.size;
+    }
+
+    public void setPlayer(Player player) {
+        this.hash ^= Zobrist.player(this.player) ^ Zobrist.player(player);
+        this.player = player;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public void setBoard(Piece[][] board) {
+        this.bitboard = Bitboard.of(board.length);
+        this.evaluation = Evaluation.of(board.length);
+        this.whitePieces = 0;
+        this.blackPieces = 0;
+        this.kings = 0;
+        this.score = 0;
+        this.hash = Zobrist.player(this.player);
+        for (int i = 0; i < board.length; i++)
+            for (int j = 0; j < board.length; j++)
+                setPiece(bitboard.square(i, j), board[i][j]);
+    }
+
+    public int getSize() {
+        return this.bitboard.size;
+    }
+
+    public Piece getPiece(int row, int column) {
+        return pieceOn(bitboard.square(row, column));
+    }
+
+    private Piece pieceOn(long square) {
+        if ((whitePieces & square) != 0)
+            return (kings & square) != 0 ? Piece.WHITEKING : Piece.WHITEPOND;
+        if ((blackPieces & square) != 0)
+            return (kings & square) != 0 ? Piece.BLACKKING : Piece.BLACKPOND;
+        return Piece.NONE;
+    }
+
+    public long getHash() {
+        return this.hash;
+    }
+
+    int getLevel() {
+        return level;
+    }
+
+    int getQuietPlies() {
+        return quietPlies;
+    }
+
+    //The hash together with the plies left before the draw by no progress, for results that are exact under that rule
+    long getHashWithQuietPlies() {
+        return hash ^ Zobrist.quietPlies(quietPlies);
+    }
+
+    long getWhitePieces() {
+        return whitePieces;
+    }
+
+    long getBlackPieces() {
+        return blackPieces;
+    }
+
+    long getKings() {
+        return kings;
+    }
+
+    //Replaces the pieces by the given masks, for the tablebase generator that walks positions by index
+    void setPieces(long whitePieces, long blackPieces, long kings) {
+        this.whitePieces = 0;
+        this.blackPieces = 0;
+        this.kings = 0;
+        this.score = 0;
+        this.hash = Zobrist.player(this.player);
+        for (long pieces = whitePieces | blackPieces; pieces != 0; pieces &= pieces - 1) {
+            long square = pieces & -pieces;
+            boolean king = (kings & square) != 0;
+            if ((whitePieces & square) != 0)
+                setPiece(square, king ? Piece.WHITEKING : Piece.WHITEPOND);
+            else
+                setPiece(square, king ? Piece.BLACKKING : Piece.BLACKPOND);
+        }
+    }
+
+    private void setPiece(long square, Piece piece) {
+        int index = Long.numberOfTrailingZeros(square);
+        Piece old = pieceOn(square);
+        hash ^= Zobrist.piece(old, index) ^ Zobrist.piece(piece, index);
+        score += evaluation.value(piece, index) - evaluation.value(old, index);
+        whitePieces &= ~square;
+        blackPieces &= ~square;
+        kings &= ~square;
+        switch (piece) {
+            case WHITEKING:
+                kings |= square;   //a king is also counted in its colour's mask
+                whitePieces |= square;
+                break;
+            case WHITEPOND:
+                whitePieces |= square;
+                break;
+            case BLACKKING:
+                kings |= square;
+                blackPieces |= square;
+                break;
+            case BLACKPOND:
+                blackPieces |= square;
+                break;
+            default:
+                break;
+        }
+    }
+
+    public void printBoard() {
+        int size = bitboard.size;
+        System.out.print("  ");
+        for (int i = 0; i < size; i++)
+            System.out.print((i + 1) + " ");
+        System.out.println();
+        StringBuilder lineBetweenRowsBuilder = new StringBuilder(" +");
+        for (int i = 0; i < size; i++)
+            lineBetweenRowsBuilder.append("-+");
+        String lineBetweenRows = lineBetweenRowsBuilder.toString();
+        System.out.println(lineBetweenRows);
+        char rowName = 'A';
+        for (int i = 0; i < 2 * size; i++) {
+            if (i % 2 == 0) {
+                System.out.print(rowName + "|");
+                for (int j = 0; j < size; j++) {
+                    switch (getPiece(i / 2, j)) {
+                        case WHITEPOND:
+                            System.out.print("w|");
+                            break;
+                        case WHITEKING:
+                            System.out.print("W|");
+                            break;
+                        case BLACKPOND:
+                            System.out.print("b|");
+                            break;
+                        case BLACKKING:
+                            System.out.print("B|");
+                            break;
+                        case NONE:
+                            System.out.print(" |");
+                            break;
+                    }
+                }
+                System.out.println();
+                rowName++;
+            } else {
+                System.out.println(lineBetweenRows);
+            }
+        }
+    }
+
+    private Action toAction(int from, int to) {
+        return new Action(new Position(bitboard.row(from), bitboard.column(from)), new Position(bitboard.row(to), bitboard.column(to)));
+    }
+
+    private long ownPieces() {
+        return this.player == Player.WHITE ? whitePieces : blackPieces;
+    }
+
+    private long opponentPieces() {
+        return this.player == Player.WHITE ? blackPieces : whitePieces;
+    }
+
+    private long emptySquares() {
+        return bitboard.all & ~(whitePieces | blackPieces);
+    }
+
+    //Ponds only move forwards: black down the board, white up the board. Kings use all four directions.
+    private int firstDirection(boolean king) {
+        return king || this.player == Player.BLACK ? Bitboard.DOWN_LEFT : Bitboard.UP_LEFT;
+    }
+
+    private int lastDirection(boolean king) {
+        return king || this.player == Player.WHITE ? Bitboard.UP_RIGHT : Bitboard.DOWN_RIGHT;
+    }
+
+    private void addQuietMoves(MoveList moves) {
+        long own = ownPieces();
+        long empty = emptySquares();
+        for (int k = Bitboard.DOWN_LEFT; k <= Bitboard.UP_RIGHT; k++) {
+            long movers = own & bitboard.canStep[k];
+            if (k < firstDirection(false) || k > lastDirection(false))
+                movers &= kings;   //only kings can move backwards
+            long targets = Bitboard.shift(movers, bitboard.offset[k]) & empty;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                moves.add(Move.encode(to - bitboard.offset[k], to, 0));
+            }
+        }
+    }
+
+    /*
+     * Follows every capture sequence of the piece that started on from and now stands on square. Captured pieces
+     * are taken off the opponent mask as we go so they cannot be jumped twice, and a pond that reaches the far row
+     * stops there.
+     */
+    private void addCaptures(MoveList moves, int from, int square, long captured, long opponent, long empty, boolean king) {
+        long squareBit = 1L << square;
+        boolean extended = false;
+        for (int k = firstDirection(king); k <= lastDirection(king); k++) {
+            if ((bitboard.canJump[k] & squareBit) == 0)
+                continue;
+            long captureBit = Bitboard.shift(squareBit, bitboard.offset[k]);
+            long landingBit = Bitboard.shift(captureBit, bitboard.offset[k]);
+            if ((opponent & captureBit) == 0 || (empty & landingBit) == 0)
+                continue;
+            extended = true;
+            int landing = square + 2 * bitboard.offset[k];
+            if (!king && (landingBit & (bitboard.firstRow | bitboard.lastRow)) != 0)   //only allow further taking if not transformed into king
+                moves.addUnique(Move.encode(from, landing, captured | captureBit));
+            else
+                addCaptures(moves, from, landing, captured | captureBit, opponent & ~captureBit, (empty | squareBit | captureBit) & ~landingBit, king);
+        }
+        if (!extended && captured != 0)  //if there are no other captures within the same move
+            moves.addUnique(Move.encode(from, square, captured));
+    }
+
+    /*
+     * Fills moves with every legal move of the player to move. Captures are mandatory, and only the sequences
+     * with the most captures are kept. Without any capture we fall back to the normal moves 1 diagonally.
+     */
+    public void generateMoves(MoveList moves) {
+        moves.clear();
+        long opponent = opponentPieces();
+        long empty = emptySquares();
+        long own = ownPieces();
+        while (own != 0) {
+            int from = Long.numberOfTrailingZeros(own);
+            addCaptures(moves, from, from, 0, opponent, empty, (kings & (1L << from)) != 0);
+            own &= own - 1;
+        }
+        if (moves.size() == 0)
+            addQuietMoves(moves);
+        else
+            moves.keepMostCaptures();
+    }
+
+    //Whether the player to move has a capture, and so has to take
+    public boolean hasCapture() {
+        long own = ownPieces();
+        long opponent = opponentPieces();
+        long empty = emptySquares();
+        for (int k = Bitboard.DOWN_LEFT; k <= Bitboard.UP_RIGHT; k++) {
+            long movers = own;
+            if (k < firstDirection(false) || k > lastDirection(false))
+                movers &= kings;
+            int offset = bitboard.offset[k];
+            long captures = Bitboard.shift(movers & bitboard.canJump[k], offset) & opponent;
+            if ((Bitboard.shift(captures, offset) & empty) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /*
+     * Whether the player to move has any legal move, without generating them: some piece can jump an opponent
+     * piece, or step onto an empty square
+     */
+    public boolean hasLegalMove() {
+        long own = ownPieces();
+        long opponent = opponentPieces();
+        long empty = emptySquares();
+        for (int k = Bitboard.DOWN_LEFT; k <= Bitboard.UP_RIGHT; k++) {
+            long movers = own;
+            if (k < firstDirection(false) || k > lastDirection(false))
+                movers &= kings;   //only kings can move backwards
+            int offset = bitboard.offset[k];
+            long captures = Bitboard.shift(movers & bitboard.canJump[k], offset) & opponent;
+            if ((Bitboard.shift(captures, offset) & empty) != 0 || (Bitboard.shift(movers & bitboard.canStep[k], offset) & empty) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    private MoveList legalMoves() {
+        if (this.moves == null)
+            this.moves = new MoveList();
+        generateMoves(this.moves);
+        return this.moves;
+    }
+
+    /*
+     * The legal moves as lists of actions, for showing them to the user
+     */
+    public List<List<Action>> applicableActions() {
+        MoveList moves = legalMoves();
+        List<List<Action>> applicableActions = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++)
+            applicableActions.add(toActions(moves.get(i)));
+        return applicableActions;
+    }
+
+    /*
+     * Rebuilds the jumps of a packed move. Any order of jumps that takes exactly the captured pieces and ends on the
+     * same square gives the same position, so the first one found is returned.
+     */
+    public List<Action> toActions(long move) {
+        List<Action> actions = new LinkedList<>();
+        int from = Move.from(move);
+        if (!Move.isCapture(move))
+            actions.add(toAction(from, Move.to(move)));
+        else
+            addCapturePath(actions, from, Move.to(move), Move.capturedSquares(move, bitboard.size), emptySquares(), (kings & (1L << from)) != 0);
+        return actions;
+    }
+
+    private boolean addCapturePath(List<Action> actions, int square, int to, long remaining, long empty, boolean king) {
+        if (remaining == 0)
+            return square == to;
+        long squareBit = 1L << square;
+        for (int k = firstDirection(king); k <= lastDirection(king); k++) {
+            if ((bitboard.canJump[k] & squareBit) == 0)
+                continue;
+            long captureBit = Bitboard.shift(squareBit, bitboard.offset[k]);
+            long landingBit = Bitboard.shift(captureBit, bitboard.offset[k]);
+            if ((remaining & captureBit) == 0 || (empty & landingBit) == 0)
+                continue;
+            int landing = square + 2 * bitboard.offset[k];
+            actions.add(toAction(square, landing));
+            if (addCapturePath(actions, landing, to, remaining & ~captureBit, (empty | squareBit | captureBit) & ~landingBit, king))
+                return true;
+            actions.remove(actions.size() - 1);
+        }
+        return false;
+    }
+
+    /*
+     * Returns the legal move the actions describe, or Move.NONE if they are not a legal move in this state
+     */
+    public long toMove(List<Action> actionList) {
+        if (actionList.isEmpty())
+            return Move.NONE;
+        long captured = 0;
+        for (Action action : actionList) {
+            if (!coordinatesInRange(action.getFrom().getRow(), action.getFrom().getColumn()) || !coordinatesInRange(action.getTo().getRow(), action.getTo().getColumn()))
+                return Move.NONE;
+            if (action.moveDiagonallyTwo()) {
+                int captureRow = (action.getFrom().getRow() + action.getTo().getRow()) / 2;
+                int captureColumn = (action.getFrom().getColumn() + action.getTo().getColumn()) / 2;
+                captured |= bitboard.square(captureRow, captureColumn);
+            }
+        }
+        Position from = actionList.get(0).getFrom();
+        Position to = actionList.get(actionList.size() - 1).getTo();
+        long move = Move.encode(from.getRow() * bitboard.size + from.getColumn(), to.getRow() * bitboard.size + to.getColumn(), captured);
+        return legalMoves().contains(move) ? move : Move.NONE;
+    }
+
+    private void tryKing(long to) {
+        if ((whitePieces & ~kings & to & bitboard.firstRow) != 0)
+            setPiece(to, Piece.WHITEKING);
+        else if ((blackPieces & ~kings & to & bitboard.lastRow) != 0)
+            setPiece(to, Piece.BLACKKING);
+    }
+
+    private void updateBoard(List<Action> actionList) {
+        for (Action action : actionList) { // update board
+            Position from = action.getFrom();
+            Position to = action.getTo();
+            long fromBit = bitboard.square(from.getRow(), from.getColumn());
+            long toBit = bitboard.square(to.getRow(), to.getColumn());
+            setPiece(toBit, getPiece(from.getRow(), from.getColumn()));
+            setPiece(fromBit, Piece.NONE);
+
+            tryKing(toBit);
+
+            if (action.moveDiagonallyTwo()) { // if the move is a capture
+                int captureRow = (from.getRow() + to.getRow()) / 2;
+                int captureColumn = (from.getColumn() + to.getColumn()) / 2;
+                setPiece(bitboard.square(captureRow, captureColumn), Piece.NONE);
+            }
+        }
+    }
+
+    private void updateBoard(long move) {
+        long fromBit = 1L << Move.from(move);
+        long toBit = 1L << Move.to(move);
+        Piece piece = pieceOn(fromBit);
+        setPiece(fromBit, Piece.NONE);   //a king can capture its way back to where it started, so clear before placing
+        long captured = Move.capturedSquares(move, bitboard.size);
+        while (captured != 0) {
+            setPiece(captured & -captured, Piece.NONE);
+            captured &= captured - 1;
+        }
+        setPiece(toBit, piece);
+        tryKing(toBit);
+    }
+
+    private long ponds() {
+        return (whitePieces | blackPieces) & ~kings;
+    }
+
+    /*
+     * Books a ply just played: the position before it goes into the history, and the no-progress count starts
+     * again if a pond moved or a piece was taken, which is when the pond mask or the number of pieces changes
+     */
+    private void countPly(long previousHash, long previousPonds, int previousPieces) {
+        if (history == null || history.length <= level)
+            history = history == null ? new long[64] : Arrays.copyOf(history, 2 * history.length);
+        history[level] = previousHash;
+        level++;
+        boolean progress = ponds() != previousPonds || Long.bitCount(whitePieces | blackPieces) != previousPieces;
+        quietPlies = progress ? 0 : quietPlies + 1;
+    }
+
+    /*
+     * Result assumes that the actions it applies are valid
+     */
+    public State result(List<Action> actionList) {
+        State resultState = new State(this);
+
+        resultState.setPlayer(resultState.getPlayer().otherPlayer()); // update player
+        resultState.updateBoard(actionList);
+        resultState.countPly(hash, ponds(), Long.bitCount(whitePieces | blackPieces)); // update level
+
+        return resultState;
+    }
+
+    public State result(long move) {
+        State resultState = new State(this);
+
+        resultState.setPlayer(resultState.getPlayer().otherPlayer());
+        resultState.updateBoard(move);
+        resultState.countPly(hash, ponds(), Long.bitCount(whitePieces | blackPieces));
+
+        return resultState;
+    }
+
+    /*
+     * Plays a move on this state in place. Everything needed to take it back is pushed on the undo stack,
+     * so a search can walk the tree on one State and call undo with the same move on the way back.
+     */
+    public void apply(long move) {
+        if (undoMoved == null || undoTop == undoMoved.length) {
+            int capacity = undoMoved == null ? 64 : 2 * undoMoved.length;
+            undoCaptured = undoCaptured == null ? new long[capacity] : Arrays.copyOf(undoCaptured, capacity);
+            undoCapturedKings = undoCapturedKings == null ? new long[capacity] : Arrays.copyOf(undoCapturedKings, capacity);
+            undoMoved = undoMoved == null ? new Piece[capacity] : Arrays.copyOf(undoMoved, capacity);
+            undoQuietPlies = undoQuietPlies == null ? new int[capacity] : Arrays.copyOf(undoQuietPlies, capacity);
+        }
+        long captured = Move.capturedSquares(move, bitboard.size);
+        undoCaptured[undoTop] = captured;
+        undoCapturedKings[undoTop] = captured & kings;
+        undoMoved[undoTop] = pieceOn(1L << Move.from(move));
+        undoQuietPlies[undoTop] = quietPlies;
+        undoTop++;
+
+        long previousHash = hash;
+        long previousPonds = ponds();
+        int previousPieces = Long.bitCount(whitePieces | blackPieces);
+        setPlayer(this.player.otherPlayer());
+        updateBoard(move);
+        countPly(previousHash, previousPonds, previousPieces);
+    }
+
+    public void undo(long move) {
+        undoTop--;
+        setPlayer(this.player.otherPlayer());
+        level--;
+        quietPlies = undoQuietPlies[undoTop];
+
+        setPiece(1L << Move.to(move), Piece.NONE);
+        setPiece(1L << Move.from(move), undoMoved[undoTop]);
+        long captured = undoCaptured[undoTop];
+        while (captured != 0) { //captured pieces belong to the player who did not move
+            long square = captured & -captured;
+            boolean king = (undoCapturedKings[undoTop] & square) != 0;
+            if (this.player == Player.WHITE)
+                setPiece(square, king ? Piece.BLACKKING : Piece.BLACKPOND);
+            else
+                setPiece(square, king ? Piece.WHITEKING : Piece.WHITEPOND);
+            captured &= captured - 1;
+        }
+    }
+
+    /*
+     * Counts the leaves of the legal move tree to the given depth, playing the moves on this state and taking
+     * them back. The draw rules are not applied, this measures the move generator only. With bulk counting
+     * the last ply is counted from the size of its move list instead of playing every move.
+     */
+    public long perft(int depth, boolean bulk) {
+        MoveList[] moveLists = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++)
+            moveLists[i] = new MoveList();
+        return perft(depth, bulk, moveLists);
+    }
+
+    private long perft(int depth, boolean bulk, MoveList[] moveLists) {
+        if (depth == 0)
+            return 1;
+        MoveList moves = moveLists[depth];
+        generateMoves(moves);
+        if (bulk && depth == 1)
+            return moves.size();
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.get(i);
+            apply(move);
+            nodes += perft(depth - 1, bulk, moveLists);
+            undo(move);
+        }
+        return nodes;
+    }
+
+    //Plies without a capture or a pond move after which the game is a draw
+    private int noProgressLimit() {
+        switch (this.bitboard.size) {
+            case 4:
+                return 16;
+            case 8:
+                return 50;
+            default:
+                return Integer.MAX_VALUE;
+        }
+    }
+
+    private boolean noProgressLimitReached() {
+        return quietPlies >= noProgressLimit();
+    }
+
+    //Plies that can still be played without progress before the game is called a draw
+    int pliesBeforeDraw() {
+        return noProgressLimit() - quietPlies;
+    }
+
+    /*
+     * Whether the position, with the same player to move, was already on the board since the last capture or
+     * pond move. The game goes on, but a search can score it as a draw: whoever could do better would not have
+     * come back to it.
+     */
+    public boolean isRepetition() {
+        //the player to move has moved a piece since two plies back, so the first candidate is four plies back
+        for (int i = level - 4; i >= level - quietPlies; i -= 2) {
+            if (history[i] == hash)
+                return true;
+        }
+        return false;
+    }
+
+    public boolean isTerminal() {
+        if (noProgressLimitReached())
+            return true;
+        // state is a terminal state if there are only white or only black ponds left
+        if (whitePieces == 0 || blackPieces == 0)
+            return true;
+        return !hasLegalMove(); //state is a terminal state if a player has no possible move
+    }
+
+    public int utility() {
+        if (noProgressLimitReached() || hasLegalMove())
+            return 0;
+        if (this.player == Player.BLACK)
+            return 1; //win for white
+        else
+            return -1; //win for black
+    }
+
+    //Evaluation of the position for the player to move, kept as a running total by setPiece
+    public int boardMajority() {
+        return this.player == Player.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,410 @@
+package com.company;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Endgame tablebases for the 8x8 board: the result of every position with up to a given number of pieces under
+ * best play, and the number of plies until the game ends, found by retrograde analysis over the State rules.
+ * The no-progress rule is not part of the tables; the search turns a win that would come after it into a draw.
+ *
+ * Positions are grouped in slices, one per piece configuration (white ponds, white kings, black ponds, black
+ * kings). A slice has one byte per position, indexed by the combination of dark squares of each kind of piece
+ * and the player to move. The file holds a header, the directory of slices and then the slices, and searches
+ * read it through a memory mapped buffer, so a probe is a few multiplications and costs no heap.
+ *
+ *   java Tablebase <pieces> [file]   generates the tables up to that many pieces, a slice per core at a time
+ */
+public class Tablebase {
+    static final String DEFAULT_FILE = "tablebase.bin";
+    static final int NOT_FOUND = Integer.MIN_VALUE;
+    //Values: 0 is a draw, n > 0 a win for the player to move in n plies, -n a loss in n - 1 plies
+    static final byte DRAW = 0;
+    private static final byte UNKNOWN = Byte.MIN_VALUE;    //only while generating
+    private static final int MAGIC = 0x434B5442;   //"CKTB"
+    private static final int VERSION = 1;
+    private static final int SQUARES = 32;         //dark squares of the 8x8 board
+    private static final long[][] binomial = new long[SQUARES + 1][SQUARES + 1];
+
+    private static Tablebase defaultTablebase;
+    private static boolean defaultLoaded;
+
+    static {
+        for (int n = 0; n <= SQUARES; n++) {
+            binomial[n][0] = 1;
+            for (int k = 1; k <= n; k++)
+                binomial[n][k] = binomial[n - 1][k - 1] + binomial[n - 1][k];
+        }
+    }
+
+    private final int pieces;
+    private final long[] offsets;   //file offset of each slice by configuration code, -1 if it is not in the file
+    private final ByteBuffer buffer;
+
+    private Tablebase(int pieces, long[] offsets, ByteBuffer buffer) {
+        this.pieces = pieces;
+        this.offsets = offsets;
+        this.buffer = buffer;
+    }
+
+    public int getPieces() {
+        return pieces;
+    }
+
+    //The tables in DEFAULT_FILE, or null if it does not exist or cannot be read
+    static synchronized Tablebase getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            Path file = Paths.get(DEFAULT_FILE);
+            if (Files.exists(file)) {
+                try {
+                    defaultTablebase = open(file);
+                } catch (IOException e) {
+                    System.out.println("Playing without the endgame tablebase: " + e.getMessage());
+                }
+            }
+        }
+        return defaultTablebase;
+    }
+
+    public static Tablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());  //stays valid after close
+            if (buffer.capacity() < 16 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+                throw new IOException("Not a tablebase file: " + file);
+            int pieces = buffer.getInt(8);
+            int slices = buffer.getInt(12);
+            if (pieces < 0 || pieces > SQUARES || slices < 0 || 16 + 12L * slices > buffer.capacity())
+                throw new IOException("Damaged tablebase file: " + file);
+            long[] offsets = new long[configurationCodes(pieces)];
+            Arrays.fill(offsets, -1);
+            for (int i = 0; i < slices; i++) {
+                int entry = 16 + 12 * i;
+                int code = buffer.getInt(entry);
+                long offset = buffer.getLong(entry + 4);
+                if (code < 0 || code >= offsets.length || offset < 0 || offset + sliceSize(pieces, code) > buffer.capacity())
+                    throw new IOException("Damaged tablebase file: " + file);
+                offsets[code] = offset;
+            }
+            return new Tablebase(pieces, offsets, buffer);
+        }
+    }
+
+    /*
+     * The value of the position for the player to move, or NOT_FOUND if it is not on an 8x8 board, has more
+     * pieces than the tables or is already decided because one side has no pieces left
+     */
+    public int probe(State state) {
+        long white = state.getWhitePieces();
+        long black = state.getBlackPieces();
+        if (state.getSize() != 8 || white == 0 || black == 0 || Long.bitCount(white | black) > pieces)
+            return NOT_FOUND;
+        long offset = offsets[code(pieces, state)];
+        if (offset < 0)
+            return NOT_FOUND;
+        return buffer.get((int) (offset + index(state)));
+    }
+
+    static boolean isWin(int value) {
+        return value > 0;
+    }
+
+    static boolean isLoss(int value) {
+        return value < 0;
+    }
+
+    //Plies until the game ends, for a win or a loss
+    static int getPlies(int value) {
+        return value > 0 ? value : -value - 1;
+    }
+
+    private static byte win(int plies) {
+        if (plies > Byte.MAX_VALUE)
+            throw new IllegalStateException("Win in " + plies + " plies does not fit in a tablebase value");
+        return (byte) plies;
+    }
+
+    private static byte loss(int plies) {
+        if (plies + 1 > Byte.MAX_VALUE)
+            throw new IllegalStateException("Loss in " + plies + " plies does not fit in a tablebase value");
+        return (byte) -(plies + 1);
+    }
+
+    //Square i of a dark square mask is bit 2i or 2i + 1 of the board, whichever lies on a dark square
+    private static long darkSquares(long squares) {
+        long dark = 0;
+        for (; squares != 0; squares &= squares - 1)
+            dark |= 1L << (Long.numberOfTrailingZeros(squares) >>> 1);
+        return dark;
+    }
+
+    private static long boardSquares(long dark) {
+        long squares = 0;
+        for (; dark != 0; dark &= dark - 1) {
+            int i = Long.numberOfTrailingZeros(dark);
+            squares |= 1L << (2 * i + 1 - ((i >>> 2) & 1));   //dark square i lies on row i / 4
+        }
+        return squares;
+    }
+
+    private static int configurationCodes(int pieces) {
+        return (pieces + 1) * (pieces + 1) * (pieces + 1) * (pieces + 1);
+    }
+
+    //Bytes of the slice with the given configuration code, or more than any file holds if the code has too many pieces
+    private static long sliceSize(int pieces, int code) {
+        int base = pieces + 1;
+        int whitePonds = code / (base * base * base);
+        int whiteKings = code / (base * base) % base;
+        int blackPonds = code / base % base;
+        int blackKings = code % base;
+        if (whitePonds + whiteKings + blackPonds + blackKings > pieces)
+            return Long.MAX_VALUE / 2;
+        return new Slice(whitePonds, whiteKings, blackPonds, blackKings).size;
+    }
+
+    private static int code(int pieces, int whitePonds, int whiteKings, int blackPonds, int blackKings) {
+        return ((whitePonds * (pieces + 1) + whiteKings) * (pieces + 1) + blackPonds) * (pieces + 1) + blackKings;
+    }
+
+    private static int code(int pieces, State state) {
+        long kings = state.getKings();
+        return code(pieces, Long.bitCount(state.getWhitePieces() & ~kings), Long.bitCount(state.getWhitePieces() & kings),
+                Long.bitCount(state.getBlackPieces() & ~kings), Long.bitCount(state.getBlackPieces() & kings));
+    }
+
+    //Rank of the squares in group among all combinations of as many squares that are not in used
+    private static long rank(long group, long used) {
+        long rank = 0;
+        int k = 1;
+        for (; group != 0; group &= group - 1) {
+            long square = group & -group;
+            rank += binomial[Long.numberOfTrailingZeros(square) - Long.bitCount(used & (square - 1))][k++];
+        }
+        return rank;
+    }
+
+    private static long unrank(long rank, int count, long used) {
+        long group = 0;
+        int position = SQUARES - Long.bitCount(used);
+        for (int k = count; k >= 1; k--) {
+            position--;
+            while (binomial[position][k] > rank)
+                position--;
+            rank -= binomial[position][k];
+            long free = ~used & 0xFFFFFFFFL;
+            for (int i = 0; i < position; i++)
+                free &= free - 1;
+            group |= free & -free;
+        }
+        return group;
+    }
+
+    private static long combinations(long used, int count) {
+        return binomial[SQUARES - Long.bitCount(used)][count];
+    }
+
+    private static long index(State state) {
+        long kings = state.getKings();
+        long whitePonds = darkSquares(state.getWhitePieces() & ~kings);
+        long whiteKings = darkSquares(state.getWhitePieces() & kings);
+        long blackPonds = darkSquares(state.getBlackPieces() & ~kings);
+        long blackKings = darkSquares(state.getBlackPieces() & kings);
+        long used = whitePonds;
+        long index = rank(whitePonds, 0);
+        index = index * combinations(used, Long.bitCount(whiteKings)) + rank(whiteKings, used);
+        used |= whiteKings;
+        index = index * combinations(used, Long.bitCount(blackPonds)) + rank(blackPonds, used);
+        used |= blackPonds;
+        index = index * combinations(used, Long.bitCount(blackKings)) + rank(blackKings, used);
+        return 2 * index + (state.getPlayer() == Player.WHITE ? 0 : 1);
+    }
+
+    //Value of a position reached while generating, for the player to move
+    private static int generatedValue(State state, byte[][] tables, int pieces) {
+        if ((state.getPlayer() == Player.WHITE ? state.getWhitePieces() : state.getBlackPieces()) == 0)
+            return loss(0);    //its last piece was just captured
+        return tables[code(pieces, state)][(int) index(state)];
+    }
+
+    /*
+     * Solves one slice in rounds: round n finds the wins in n plies (a move to a loss in n - 1) and the losses in
+     * n plies (every move goes to a win, the longest in n - 1). Moves out of the slice lead to positions that are
+     * already solved, so the rounds go on at least until their longest result has been used. A position whose
+     * moves are all solved, none to a loss and some to a draw, is a draw; whatever is left at the end can never
+     * be forced either way and is a draw too.
+     */
+    private static void solve(Slice slice, byte[][] tables, int pieces) {
+        byte[] values = new byte[slice.size];
+        Arrays.fill(values, UNKNOWN);
+        tables[slice.code(pieces)] = values;
+        State state = new State(8);
+        MoveList moves = new MoveList();
+        int longestKnown = 0;
+        boolean changed = true;
+        for (int plies = 0; changed || plies <= longestKnown + 1; plies++) {
+            changed = false;
+            for (int index = 0; index < values.length; index++) {
+                if (values[index] != UNKNOWN)
+                    continue;
+                slice.position(state, index);
+                state.generateMoves(moves);
+                int shortestLoss = Integer.MAX_VALUE;
+                int longestWin = -1;
+                boolean unknown = false;
+                boolean draw = false;
+                for (int i = 0; i < moves.size(); i++) {
+                    long move = moves.get(i);
+                    state.apply(move);
+                    int value = generatedValue(state, tables, pieces);
+                    state.undo(move);
+                    if (value == UNKNOWN) {
+                        unknown = true;
+                        continue;
+                    }
+                    if (value == DRAW)
+                        draw = true;
+                    else if (isLoss(value))
+                        shortestLoss = Math.min(shortestLoss, getPlies(value));
+                    else
+                        longestWin = Math.max(longestWin, getPlies(value));
+                    if (plies == 0 && value != DRAW)
+                        longestKnown = Math.max(longestKnown, getPlies(value));
+                }
+                byte value = UNKNOWN;
+                if (shortestLoss != Integer.MAX_VALUE) {
+                    if (shortestLoss + 1 == plies)
+                        value = win(plies);
+                } else if (!unknown) {
+                    if (draw)
+                        value = DRAW;
+                    else if (longestWin + 1 == plies)
+                        value = loss(plies);
+                }
+                if (value != UNKNOWN) {
+                    values[index] = value;
+                    changed = true;
+                }
+            }
+        }
+        for (int index = 0; index < values.length; index++)
+            if (values[index] == UNKNOWN)
+                values[index] = DRAW;
+    }
+
+    public static void generate(int pieces, Path file) throws IOException {
+        byte[][] tables = new byte[configurationCodes(pieces)][];
+        List<Slice> slices = new ArrayList<>();
+        for (int total = 2; total <= pieces; total++) {
+            for (int ponds = 0; ponds <= total; ponds++) {
+                List<Slice> group = new ArrayList<>();  //these slices never move into each other
+                for (int whitePonds = 0; whitePonds <= ponds; whitePonds++) {
+                    for (int whiteKings = 0; whiteKings <= total - ponds; whiteKings++) {
+                        int blackPonds = ponds - whitePonds;
+                        int blackKings = total - ponds - whiteKings;
+                        if (whitePonds + whiteKings > 0 && blackPonds + blackKings > 0)
+                            group.add(new Slice(whitePonds, whiteKings, blackPonds, blackKings));
+                    }
+                }
+                long start = System.nanoTime();
+                group.parallelStream().forEach(slice -> solve(slice, tables, pieces));
+                long positions = 0;
+                for (Slice slice : group)
+                    positions += slice.size;
+                System.out.printf("%d pieces, %d ponds: %d slices, %d positions in %.1f s%n", total, ponds, group.size(),
+                        positions, (System.nanoTime() - start) / 1e9);
+                slices.addAll(group);
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(pieces);
+            out.writeInt(slices.size());
+            long offset = 16 + 12L * slices.size();
+            for (Slice slice : slices) {
+                out.writeInt(slice.code(pieces));
+                out.writeLong(offset);
+                offset += slice.size;
+            }
+            for (Slice slice : slices)
+                out.write(tables[slice.code(pieces)]);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int pieces = Integer.parseInt(args[0]);
+        Path file = Paths.get(args.length > 1 ? args[1] : DEFAULT_FILE);
+        long start = System.nanoTime();
+        generate(pieces, file);
+        System.out.printf("Wrote %s (%d bytes) in %.1f s%n", file, Files.size(file), (System.nanoTime() - start) / 1e9);
+    }
+
+    /*
+     * A piece configuration: how many ponds and kings each side has. Slices are solved in order of the number of
+     * pieces and then of ponds, since a capture leaves fewer pieces and a promotion fewer ponds, so every move
+     * out of a slice leads into one solved before it.
+     */
+    private static class Slice {
+        final int whitePonds;
+        final int whiteKings;
+        final int blackPonds;
+        final int blackKings;
+        final int size;
+
+        Slice(int whitePonds, int whiteKings, int blackPonds, int blackKings) {
+            this.whitePonds = whitePonds;
+            this.whiteKings = whiteKings;
+            this.blackPonds = blackPonds;
+            this.blackKings = blackKings;
+            long size = 2 * binomial[SQUARES][whitePonds] * binomial[SQUARES - whitePonds][whiteKings]
+                    * binomial[SQUARES - whitePonds - whiteKings][blackPonds]
+                    * binomial[SQUARES - whitePonds - whiteKings - blackPonds][blackKings];
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalStateException("Slice too large: " + this);
+            this.size = (int) size;
+        }
+
+        int code(int pieces) {
+            return Tablebase.code(pieces, whitePonds, whiteKings, blackPonds, blackKings);
+        }
+
+        //Sets up the position with the given index on state, the inverse of Tablebase.index
+        void position(State state, int index) {
+            int[] counts = {whitePonds, whiteKings, blackPonds, blackKings};
+            long[] ranks = new long[4];
+            long rank = index >>> 1;
+            int used = whitePonds + whiteKings + blackPonds;
+            for (int i = 3; i >= 0; i--) {
+                long combinations = binomial[SQUARES - used][counts[i]];
+                ranks[i] = rank % combinations;
+                rank /= combinations;
+                if (i > 0)
+                    used -= counts[i - 1];
+            }
+            long[] groups = new long[4];
+            long occupied = 0;
+            for (int i = 0; i < 4; i++) {
+                groups[i] = unrank(ranks[i], counts[i], occupied);
+                occupied |= groups[i];
+            }
+            state.setPlayer((index & 1) == 0 ? Player.WHITE : Player.BLACK);
+            state.setPieces(boardSquares(groups[0] | groups[1]), boardSquares(groups[2] | groups[3]), boardSquares(groups[1] | groups[3]));
+        }
+
+        public String toString() {
+            return whitePonds + " white ponds, " + whiteKings + " white kings, " + blackPonds + " black ponds, " + blackKings + " black kings";
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.company;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * One side of a tournament: a search algorithm and its settings, parsed from a comma separated list such as
+ * algorithm=A_B_H_MINIMAX,depth=6 or algorithm=TIMED_A_B_H_MINIMAX,time=50,ordering=off,hash=16. Searches run on
+ * one thread unless threads is given, since the tournament already keeps every core busy with games. With
+ * clock=1+0.5 the engine plays on a clock instead of a fixed time per move, here a minute and half a second
+ * more per move.
+ */
+class EngineConfig {
+    private final String description;
+    private SearchAlgorithm algorithm = SearchAlgorithm.A_B_H_MINIMAX;
+    private int depth = 6;
+    private long moveTimeMillis;
+    private boolean moveOrdering = true;
+    private boolean quiescence = true;
+    private boolean lateMoveReductions;
+    private boolean futilityPruning;
+    private boolean tablebase = true;
+    private boolean solver = true;
+    private int threads = 1;
+    private int hashMegabytes;      //0 for the table size the caller asks for
+    private TimeControl timeControl;    //null without a clock
+
+    private EngineConfig(String description) {
+        this.description = description;
+    }
+
+    static EngineConfig parse(String description) {
+        EngineConfig config = new EngineConfig(description);
+        for (String setting : description.split(",")) {
+            String[] keyValue = setting.split("=", 2);
+            if (keyValue.length != 2)
+                throw new IllegalArgumentException("Expected key=value in " + description + ": " + setting);
+            String value = keyValue[1].trim();
+            switch (keyValue[0].trim()) {
+                case "algorithm":
+                    config.algorithm = SearchAlgorithm.valueOf(value);
+                    break;
+                case "depth":
+                    config.depth = Integer.parseInt(value);
+                    break;
+                case "time":
+                    config.moveTimeMillis = Long.parseLong(value);
+                    break;
+                case "ordering":
+                    config.moveOrdering = !value.equals("off");
+                    break;
+                case "quiescence":
+                    config.quiescence = !value.equals("off");
+                    break;
+                case "lmr":
+                    config.lateMoveReductions = value.equals("on");
+                    break;
+                case "futility":
+                    config.futilityPruning = value.equals("on");
+                    break;
+                case "tablebase":
+                    config.tablebase = !value.equals("off");
+                    break;
+                case "solver":
+                    config.solver = !value.equals("off");
+                    break;
+                case "threads":
+                    config.threads = Integer.parseInt(value);
+                    break;
+                case "hash":
+                    config.hashMegabytes = Integer.parseInt(value);
+                    break;
+                case "clock":
+                    config.timeControl = TimeControl.parse(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown engine setting: " + keyValue[0]);
+            }
+        }
+        //only the iteratively deepening searches can be stopped when their time is up
+        if (config.moveTimeMillis > 0 && !Runner.keepsToClock(config.algorithm))
+            throw new IllegalArgumentException(config.algorithm + " cannot keep to a time per move: " + description);
+        if (config.timeControl != null && !Runner.keepsToClock(config.algorithm))
+            throw new IllegalArgumentException(config.algorithm + " cannot play on a clock: " + description);
+        return config;
+    }
+
+    SearchContext newContext() {
+        return newContext(1 << 18);
+    }
+
+    //A context with a table of defaultEntries, unless the engine gives its size with hash=
+    SearchContext newContext(int defaultEntries) {
+        SearchContext context = new SearchContext(hashMegabytes > 0 ? TranspositionTable.ofMegabytes(hashMegabytes) : new TranspositionTable(defaultEntries));
+        context.setMoveTimeMillis(moveTimeMillis);
+        context.setMoveOrdering(moveOrdering);
+        context.setQuiescence(quiescence);
+        context.setLateMoveReductions(lateMoveReductions);
+        context.setFutilityPruning(futilityPruning);
+        if (!tablebase)
+            context.setTablebase(null);
+        context.setSolverEnabled(solver);
+        context.setThreads(threads);
+        return context;
+    }
+
+    TimeControl getTimeControl() {
+        return timeControl;
+    }
+
+    long nextMove(State state, SearchContext context) {
+        return Runner.nextMove(algorithm, state, depth, context);
+    }
+
+    //The move on the clock, which must be running for the player to move
+    long nextMove(State state, SearchContext context, GameClock clock) {
+        if (clock != null)
+            TimeManager.allocate(clock, state, context);
+        return nextMove(state, context);
+    }
+
+    public String toString() {
+        return description;
+    }
+}
+
+/*
+ * Plays many games between two engine configurations on all cores, without printing the boards, and reports
+ * the result with the Elo difference and its 95% error bar, and the speed of each side. Every game starts with
+ * a few random moves, and each opening is played twice with the colours swapped so neither side gains from it.
+ *
+ *   java Tournament <board size> <games> <engine A> <engine B> [random opening plies] [seed]
+ *   java Tournament 8 1000 algorithm=A_B_H_MINIMAX,depth=6 algorithm=A_B_H_MINIMAX,depth=6,ordering=off
+ *   java Tournament 8 1000 algorithm=TIMED_A_B_H_MINIMAX,time=100 algorithm=PRINCIPAL_VARIATION_SEARCH,depth=64,time=100,lmr=on,futility=on
+ *   java Tournament 8 200 algorithm=PRINCIPAL_VARIATION_SEARCH,depth=64,clock=0.5+0.05 algorithm=TIMED_A_B_H_MINIMAX,time=50
+ */
+public class Tournament {
+    //What one side did in one game
+    private static class SideStatistics {
+        long nodes;
+        long nanos;
+        long moves;
+        long maxNanos;
+        long timeLosses;
+
+        void add(SideStatistics other) {
+            nodes += other.nodes;
+            nanos += other.nanos;
+            moves += other.moves;
+            maxNanos = Math.max(maxNanos, other.maxNanos);
+            timeLosses += other.timeLosses;
+        }
+
+        public String toString() {
+            return String.format("%.0f nodes/s, %.2f ms per move on average, %.2f ms at most, %d moves, %d games lost on time",
+                    nanos == 0 ? 0 : nodes / (nanos / 1e9), moves == 0 ? 0 : nanos / 1e6 / moves, maxNanos / 1e6, moves, timeLosses);
+        }
+    }
+
+    private static class GameResult {
+        int score;  //1 if engine A won, 0 for a draw, -1 if engine B won
+        final SideStatistics[] sides = {new SideStatistics(), new SideStatistics()};
+    }
+
+    //Contexts are reused from game to game on the same worker thread, so each game does not allocate two tables
+    private static final ThreadLocal<SearchContext[]> contexts = new ThreadLocal<>();
+
+    private static GameResult play(int boardSize, EngineConfig[] engines, boolean engineAIsWhite, int openingPlies, long seed,
+                                   GameRecorder gameRecorder) {
+        SearchContext[] sideContexts = contexts.get();
+        if (sideContexts == null) {
+            sideContexts = new SearchContext[]{engines[0].newContext(), engines[1].newContext()};
+            contexts.set(sideContexts);
+        }
+        RecordedGame game = gameRecorder == null ? null
+                : gameRecorder.newGame(boardSize, engines[engineAIsWhite ? 1 : 0].toString(), engines[engineAIsWhite ? 0 : 1].toString());
+        State state = new State(boardSize);
+        SplittableRandom random = new SplittableRandom(seed);
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < openingPlies && !state.isTerminal(); ply++) {
+            state.generateMoves(moves);
+            long move = moves.get(random.nextInt(moves.size()));
+            if (game != null)
+                game.move(move, null);
+            state = state.result(move);
+        }
+
+        //a side without a time control is not timed, but its opponent still is
+        TimeControl engineAControl = engines[0].getTimeControl();
+        TimeControl engineBControl = engines[1].getTimeControl();
+        GameClock clock = engineAControl == null && engineBControl == null ? null
+                : engineAIsWhite ? new GameClock(engineAControl, engineBControl) : new GameClock(engineBControl, engineAControl);
+
+        GameResult result = new GameResult();
+        while (!state.isTerminal()) {
+            int side = (state.getPlayer() == Player.WHITE) == engineAIsWhite ? 0 : 1;
+            SideStatistics statistics = result.sides[side];
+            long start = System.nanoTime();
+            if (clock != null)
+                clock.start(state.getPlayer());
+            long move = engines[side].nextMove(state, sideContexts[side], clock);
+            if (clock != null && !clock.stop()) {
+                statistics.timeLosses++;
+                if (game != null)
+                    game.end(state.getPlayer() == Player.WHITE ? -1 : 1);
+                result.score = side == 0 ? -1 : 1;
+                return result;
+            }
+            long nanos = System.nanoTime() - start;
+            statistics.nanos += nanos;
+            statistics.maxNanos = Math.max(statistics.maxNanos, nanos);
+            statistics.nodes += sideContexts[side].getTotalNodes();
+            statistics.moves++;
+            if (game != null)
+                game.move(move, sideContexts[side].getStatistics());
+            state = state.result(move);
+        }
+        if (game != null)
+            game.end(state);
+        int whiteScore = state.utility();
+        result.score = engineAIsWhite ? whiteScore : -whiteScore;
+        return result;
+    }
+
+    private static double elo(double score) {
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static void report(EngineConfig[] engines, int wins, int draws, int losses, SideStatistics[] sides, double seconds) {
+        int games = wins + draws + losses;
+        double score = (wins + 0.5 * draws) / games;
+        //standard error of the mean score per game, and the Elo differences at the ends of its 95% interval
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2) + losses * Math.pow(score, 2)) / games;
+        double margin = 1.96 * Math.sqrt(variance / games);
+        System.out.printf("%d games in %.1f s: A won %d, drew %d, lost %d%n", games, seconds, wins, draws, losses);
+        if (score == 0 || score == 1) {
+            System.out.printf("Score of A: %.1f%%, Elo difference unbounded%n", 100 * score);
+        } else {
+            double low = score - margin <= 0 ? Double.NEGATIVE_INFINITY : elo(score - margin);
+            double high = score + margin >= 1 ? Double.POSITIVE_INFINITY : elo(score + margin);
+            System.out.printf("Score of A: %.1f%%, Elo difference %+.1f (95%%: %+.1f to %+.1f)%n", 100 * score, elo(score), low, high);
+        }
+        System.out.println("A (" + engines[0] + "): " + sides[0]);
+        System.out.println("B (" + engines[1] + "): " + sides[1]);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 4) {
+            System.out.println("Usage: java Tournament <board size> <games> <engine A> <engine B> [random opening plies] [seed]");
+            return;
+        }
+        int boardSize = Integer.parseInt(args[0]);
+        int games = Integer.parseInt(args[1]);
+        EngineConfig[] engines = {EngineConfig.parse(args[2]), EngineConfig.parse(args[3])};
+        int openingPlies = args.length > 4 ? Integer.parseInt(args[4]) : (boardSize == 4 ? 2 : 4);
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+
+        //java -Dcheckers.record=games appends every game to games.pdn and to the archive games.bin
+        String record = System.getProperty("checkers.record");
+        GameRecorder gameRecorder = record == null ? null : new GameRecorder(Paths.get(record + ".pdn"), Paths.get(record + ".bin"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        List<Future<GameResult>> results = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            boolean engineAIsWhite = i % 2 == 0;
+            long openingSeed = seed * 1_000_003 + i / 2;    //both games of a pair get the same opening
+            results.add(executor.submit(() -> play(boardSize, engines, engineAIsWhite, openingPlies, openingSeed, gameRecorder)));
+        }
+
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        SideStatistics[] sides = {new SideStatistics(), new SideStatistics()};
+        try {
+            for (int i = 0; i < games; i++) {
+                GameResult result = results.get(i).get();
+                if (result.score > 0)
+                    wins++;
+                else if (result.score < 0)
+                    losses++;
+                else
+                    draws++;
+                sides[0].add(result.sides[0]);
+                sides[1].add(result.sides[1]);
+                if ((i + 1) % Math.max(1, games / 10) == 0 && i + 1 < games)
+                    System.out.printf("%d games: +%d =%d -%d%n", i + 1, wins, draws, losses);
+            }
+        } finally {
+            //a failed game must not leave the worker threads waiting for work and the JVM running
+            executor.shutdownNow();
+            if (gameRecorder != null)
+                gameRecorder.close();
+        }
+        report(engines, wins, draws, losses, sides, (System.nanoTime() - start) / 1e9);
+    }
+}
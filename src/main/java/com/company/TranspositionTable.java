@@ -0,0 +1,214 @@
+package com.company;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+enum Bound {
+    EXACT,
+    LOWER,  //the search failed high, the real value is at least the stored score
+    UPPER;  //the search failed low, the real value is at most the stored score
+
+    //The same bound seen by the other player, whose score is the negation
+    Bound negated() {
+        switch (this) {
+            case LOWER:
+                return UPPER;
+            case UPPER:
+                return LOWER;
+            default:
+                return EXACT;
+        }
+    }
+}
+
+/*
+ * Entries live in one flat long[], three longs each: the key xor-ed with the other two words, the best move,
+ * and an info word with score, depth, bound and generation. Threads read and write without locks; an entry torn
+ * by two writers no longer xors back to its key and simply reads as a miss.
+ *
+ * The table is not cleared between searches. Each search starts a new generation instead, so results carry over
+ * from move to move and game to game. Entries come in buckets of two: the first slot keeps the deepest result of
+ * the current generation and only gives way to a result at least as deep or when it was left by an earlier
+ * search, even for the same position; the second slot always takes the newest result. Scores are stored for the
+ * player to move, so they do not depend on which side the search was for. Draws by repetition or by the
+ * no-progress rule depend on the path to a position and are never stored, so a saved table can be loaded for
+ * any game.
+ */
+class TranspositionTable {
+    static final long NOT_FOUND = 0;  //a stored info word always has bound bits set, so it is never 0
+
+    private static final int MAGIC = 0x434B5454;   //"CKTT"
+    private static final int VERSION = 3;   //2: keys no longer include the level; 3: no draws by repetition or no progress
+    private static final int ENTRY_LONGS = 3;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+    private static final int GENERATIONS = 256;
+    private static final int MAX_ENTRIES = 1 << 29;     //keeps the long[] within the largest array Java allows
+
+    private final int mask;
+    private final long[] entries;
+    private volatile int generation;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    public TranspositionTable(int sizeInEntries) {
+        //round down to a power of two buckets so a key maps to a bucket with a mask
+        int buckets = Math.max(1, Integer.highestOneBit(Math.min(sizeInEntries, MAX_ENTRIES)) / 2);
+        this.mask = buckets - 1;
+        this.entries = new long[buckets * BUCKET_LONGS];
+    }
+
+    //The largest table that fits in the given memory
+    static TranspositionTable ofMegabytes(int megabytes) {
+        long sizeInEntries = ((long) megabytes << 20) / (ENTRY_LONGS * Long.BYTES);
+        return new TranspositionTable((int) Math.min(sizeInEntries, MAX_ENTRIES));
+    }
+
+    public int size() {
+        return entries.length / ENTRY_LONGS;
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0);
+        probes.reset();
+        hits.reset();
+    }
+
+    /*
+     * Called at the start of every search: what is stored from now on outranks what earlier searches left. The
+     * probe and hit counts go on, since searches sharing the table overlap; each search counts its own in its
+     * SearchContext.
+     */
+    public void newSearch() {
+        generation = (generation + 1) % GENERATIONS;
+    }
+
+    static int getScore(long info) {
+        return (int) info;
+    }
+
+    static int getDepth(long info) {
+        return (int) (info >>> 32) & 0xFFFF;
+    }
+
+    static Bound getBound(long info) {
+        return Bound.values()[(int) (info >>> 48 & 3) - 1];
+    }
+
+    private static int getGeneration(long info) {
+        return (int) (info >>> 50) & (GENERATIONS - 1);
+    }
+
+    private static long info(int depth, int score, Bound bound, int generation) {
+        return (score & 0xFFFFFFFFL) | (long) depth << 32 | (long) (bound.ordinal() + 1) << 48 | (long) generation << 50;
+    }
+
+    private int bucket(long key) {
+        return ((int) key & mask) * BUCKET_LONGS;
+    }
+
+    /*
+     * Returns the info word stored for the key, or NOT_FOUND if the position is not in the table
+     */
+    public long probe(long key) {
+        probes.increment();
+        int index = bucket(key);
+        for (int slot = index; slot < index + BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long move = entries[slot + 1];
+            long info = entries[slot + 2];
+            if (info != NOT_FOUND && (entries[slot] ^ move ^ info) == key) {
+                hits.increment();
+                return info;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    public long getMove(long key) {
+        int index = bucket(key);
+        for (int slot = index; slot < index + BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long move = entries[slot + 1];
+            long info = entries[slot + 2];
+            if (info != NOT_FOUND && (entries[slot] ^ move ^ info) == key)
+                return move;
+        }
+        return Move.NONE;
+    }
+
+    public void store(long key, int depth, int score, Bound bound, long move) {
+        int index = bucket(key);
+        int currentGeneration = generation;
+        long deepInfo = entries[index + 2];
+        int slot;
+        if (deepInfo != NOT_FOUND && (entries[index] ^ entries[index + 1] ^ deepInfo) == key) {
+            if (getGeneration(deepInfo) == currentGeneration && getDepth(deepInfo) > depth)
+                return; //keep this search's deeper result for the same position
+            slot = index;
+        } else if (deepInfo == NOT_FOUND || getGeneration(deepInfo) != currentGeneration || getDepth(deepInfo) <= depth) {
+            slot = index;
+        } else {
+            slot = index + ENTRY_LONGS;
+        }
+        long info = info(depth, score, bound, currentGeneration);
+        entries[slot] = key ^ move ^ info;
+        entries[slot + 1] = move;
+        entries[slot + 2] = info;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    //Writes the whole table, so a later run can start with what this one learnt
+    public void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(entries.length).putInt(generation);
+            for (long word : entries) {
+                if (!buffer.hasRemaining())
+                    write(channel, buffer);
+                buffer.putLong(word);
+            }
+            write(channel, buffer);
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    public static TranspositionTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                throw new IOException("Not a transposition table file: " + file);
+            int length = buffer.getInt();
+            int generation = buffer.getInt();
+            if (length % BUCKET_LONGS != 0 || Integer.bitCount(length / BUCKET_LONGS) != 1
+                    || buffer.remaining() != (long) length * Long.BYTES)
+                throw new IOException("Damaged transposition table file: " + file);
+            TranspositionTable table = new TranspositionTable(length / ENTRY_LONGS);
+            buffer.asLongBuffer().get(table.entries);
+            table.generation = generation % GENERATIONS;
+            return table;
+        }
+    }
+
+    public String toString() {
+        long probes = getProbes();
+        double hitRate = probes == 0 ? 0 : 100.0 * getHits() / probes;
+        return String.format("Transposition table: %d hits out of %d probes (%.1f%%) in all", getHits(), probes, hitRate);
+    }
+}